@@ -0,0 +1,101 @@
+#!/bin/bash
+
+# Training run for the class-data-sharing (AppCDS) archive used by Dockerfile.prod.
+#
+# Starts the exploded application against a throwaway PostgreSQL, drives the main request
+# paths once (auth, boards, lists, cards) and stops it; on exit the JVM dumps every class it
+# loaded into $CDS_ARCHIVE. The archive is only valid for the same JVM and classpath, which is
+# why this runs inside the image build rather than on the build machine.
+#
+# Locally, point it at an existing database instead of starting one:
+#   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/balekai APP_DIR=/tmp/app ./cds-training.sh
+
+set -e
+
+APP_DIR="${APP_DIR:-/app}"
+CDS_ARCHIVE="${CDS_ARCHIVE:-$APP_DIR/app.jsa}"
+APP_PORT="${APP_PORT:-8080}"
+MANAGEMENT_PORT="${MANAGEMENT_PORT:-8081}"
+PG_PORT="${PG_PORT:-5433}"
+PG_DATA="${PG_DATA:-/tmp/cds-training-db}"
+BASE_URL="http://localhost:$APP_PORT"
+
+APP_PID=""
+PG_STARTED=""
+
+cleanup() {
+    if [ -n "$APP_PID" ] && kill -0 "$APP_PID" 2>/dev/null; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+    fi
+    if [ -n "$PG_STARTED" ]; then
+        su postgres -c "$PG_BIN/pg_ctl -D $PG_DATA -m fast stop" > /dev/null || true
+        rm -rf "$PG_DATA"
+    fi
+}
+trap cleanup EXIT
+
+# Throwaway database, unless one was provided
+if [ -z "$SPRING_DATASOURCE_URL" ]; then
+    PG_BIN="${PG_BIN:-$(ls -d /usr/lib/postgresql/*/bin | tail -n 1)}"
+    echo "🐘 Starting training database on port $PG_PORT..."
+    mkdir -p "$PG_DATA" && chown postgres "$PG_DATA"
+    su postgres -c "$PG_BIN/initdb -D $PG_DATA -A trust -U postgres" > /dev/null
+    su postgres -c "$PG_BIN/pg_ctl -D $PG_DATA -o '-p $PG_PORT -k /tmp' -w start" > /dev/null
+    PG_STARTED=1
+    export SPRING_DATASOURCE_URL="jdbc:postgresql://localhost:$PG_PORT/postgres"
+    export SPRING_DATASOURCE_USERNAME=postgres
+    export SPRING_DATASOURCE_PASSWORD=
+fi
+
+echo "☕ Starting application with -XX:ArchiveClassesAtExit=$CDS_ARCHIVE..."
+rm -f "$CDS_ARCHIVE"
+java -XX:ArchiveClassesAtExit="$CDS_ARCHIVE" -Xlog:cds=error -Dspring.aot.enabled=true -Xmx512m -Xms256m \
+    @"$APP_DIR/classpath.args" balekai.designpatterns.TrellloApplication \
+    --spring.profiles.active=prod --server.port="$APP_PORT" --management.server.port="$MANAGEMENT_PORT" &
+APP_PID=$!
+
+for i in $(seq 1 120); do
+    if curl -fs "http://localhost:$MANAGEMENT_PORT/actuator/health" > /dev/null; then
+        break
+    fi
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "❌ Application exited during startup"
+        exit 1
+    fi
+    sleep 1
+done
+
+echo "🏋️ Exercising request paths..."
+EMAIL="cds-training-$$@example.com"
+request() {
+    if [ -n "$TOKEN" ]; then
+        set -- -H "Authorization: Bearer $TOKEN" "$@"
+    fi
+    curl -fs -H "Content-Type: application/json" "$@"
+}
+json_field() {
+    grep -o "\"$1\":\"\{0,1\}[^\",}]*" | head -n 1 | sed 's/.*:"\{0,1\}//'
+}
+
+request -X POST "$BASE_URL/auth/register" -d "{\"name\":\"CDS Training\",\"email\":\"$EMAIL\",\"password\":\"training-password\"}" > /dev/null
+TOKEN=$(request -X POST "$BASE_URL/auth/login" -d "{\"email\":\"$EMAIL\",\"password\":\"training-password\"}" | json_field accessToken)
+BOARD_ID=$(request -X POST "$BASE_URL/boards" -d '{"name":"Training board","isPrivate":true}' | json_field id)
+LIST_ID=$(request -X POST "$BASE_URL/lists/$BOARD_ID" -d '{"name":"To Do"}' | json_field id)
+request -X POST "$BASE_URL/cards" -d "{\"title\":\"Training card\",\"list\":{\"id\":$LIST_ID}}" > /dev/null
+request "$BASE_URL/boards" > /dev/null
+request "$BASE_URL/boards/$BOARD_ID" > /dev/null
+request "$BASE_URL/boards/$BOARD_ID?fields=name,lists(cards(title))" > /dev/null
+request "$BASE_URL/cards" > /dev/null
+request "http://localhost:$MANAGEMENT_PORT/actuator/prometheus" > /dev/null
+
+# A clean shutdown is what writes the archive
+kill "$APP_PID"
+wait "$APP_PID" || true
+APP_PID=""
+
+if [ ! -s "$CDS_ARCHIVE" ]; then
+    echo "❌ CDS archive was not written"
+    exit 1
+fi
+echo "✅ CDS archive written: $CDS_ARCHIVE ($(du -h "$CDS_ARCHIVE" | cut -f1))"
@@ -11,7 +11,7 @@ YELLOW='\033[1;33m'
 NC='\033[0m' # No Color
 
 echo -e "${BLUE}Step 1: Building Application${NC}"
-mvn clean package -DskipTests
+mvn -P aot clean package -DskipTests
 
 if [ $? -ne 0 ]; then
     echo "❌ Build failed. Please fix the build issues first."
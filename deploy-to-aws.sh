@@ -19,7 +19,7 @@ APP_RUNNER_SERVICE_NAME="balekai-backend-service"
 
 echo -e "${BLUE}Step 1: Building the Application${NC}"
 echo "Building Spring Boot application..."
-mvn clean package -DskipTests
+mvn -P aot clean package -DskipTests
 
 if [ $? -ne 0 ]; then
     echo -e "${RED}❌ Build failed. Please fix the build issues first.${NC}"
@@ -23,7 +23,7 @@ echo -e "${BLUE}Step 1: Building Application with Token Refresh Changes${NC}"
 echo "Building Spring Boot application with JWT token refresh functionality..."
 
 # Clean and build the application
-mvn clean package -DskipTests
+mvn -P aot clean package -DskipTests
 
 if [ $? -ne 0 ]; then
     echo -e "${RED}❌ Build failed. Please fix the build issues first.${NC}"
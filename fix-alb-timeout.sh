@@ -16,7 +16,7 @@ echo "Building application with optimized settings..."
 echo ""
 
 # Build the application
-mvn clean package -DskipTests -q
+mvn -P aot clean package -DskipTests -q
 if [ $? -ne 0 ]; then
     echo -e "${RED}❌ Build failed${NC}"
     exit 1
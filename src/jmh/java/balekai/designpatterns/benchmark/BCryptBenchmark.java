@@ -0,0 +1,52 @@
+package balekai.designpatterns.benchmark;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt hash/verify cost per work factor. PasswordHashingService calibrates its cost
+ * against security.password.bcrypt-target-ms; override the costs to match a deployment
+ * with {@code -Djmh.args="BCryptBenchmark -p cost=12"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BCryptBenchmark {
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    private String salt;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        salt = BCrypt.gensalt(cost);
+        hash = BCrypt.hashpw("correct horse battery staple", salt);
+    }
+
+    @Benchmark
+    public String hash() {
+        return BCrypt.hashpw("correct horse battery staple", salt);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return BCrypt.checkpw("correct horse battery staple", hash);
+    }
+}
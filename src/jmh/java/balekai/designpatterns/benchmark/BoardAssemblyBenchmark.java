@@ -0,0 +1,90 @@
+package balekai.designpatterns.benchmark;
+
+import balekai.designpatterns.TrellloApplication;
+import balekai.designpatterns.controller.BoardController;
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /boards/{id} end to end below the servlet layer: access check, loading the board graph
+ * through JPA and serializing the response, against H2 in PostgreSQL mode. Both the default
+ * entity graph and a sparse fieldset are measured so the two paths can be compared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardAssemblyBenchmark {
+
+    private static final String SPARSE_FIELDS = "name,lists(name,cards(title,currentState,assignedUser(name)))";
+
+    @Param({"10", "100", "1000"})
+    private int cards;
+
+    private ConfigurableApplicationContext context;
+    private BoardController boardController;
+    private ObjectMapper objectMapper;
+    private MockHttpServletRequest request;
+    private Long boardId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TrellloApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        User owner = context.getBean(UserRepository.class).save(BoardFixtures.user("bench-owner"));
+        // Lists and cards are persisted through the board's cascade
+        boardId = context.getBean(BoardRepository.class).save(BoardFixtures.board(owner, cards)).getId();
+
+        boardController = context.getBean(BoardController.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        request = new MockHttpServletRequest("GET", "/boards/" + boardId);
+        request.setAttribute("authenticatedUserEmail", owner.getEmail());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] fullBoard() throws Exception {
+        return objectMapper.writeValueAsBytes(boardController.getBoard(boardId, null, request).getBody());
+    }
+
+    @Benchmark
+    public byte[] sparseBoard() throws Exception {
+        return objectMapper.writeValueAsBytes(boardController.getBoard(boardId, SPARSE_FIELDS, request).getBody());
+    }
+}
@@ -0,0 +1,70 @@
+package balekai.designpatterns.benchmark;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.Card;
+import balekai.designpatterns.model.TrelloList;
+import balekai.designpatterns.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds board graphs shaped like the ones the app serves: the five lists every new board
+ * gets (see BoardController#createBoard), cards spread evenly across them, every other card
+ * assigned, a couple of comments and a state history per card.
+ */
+final class BoardFixtures {
+
+    static final String[] LIST_NAMES = {"To Do", "In Progress", "Blocked", "Review", "Done"};
+
+    private BoardFixtures() {
+    }
+
+    static User user(String id) {
+        return User.builder().id(id).name("Bench " + id).email(id + "@bench.local").password("").build();
+    }
+
+    static Board board(User owner, int cardCount) {
+        Board board = new Board();
+        board.setName("Benchmark board (" + cardCount + " cards)");
+        board.setOwnerId(owner.getId());
+        board.setOwnerName(owner.getName());
+        board.setVisibility("public");
+        board.setAPrivate(false);
+        board.setLists(new ArrayList<>());
+
+        for (String name : LIST_NAMES) {
+            TrelloList list = new TrelloList();
+            list.setName(name);
+            list.setBoard(board);
+            board.getLists().add(list);
+        }
+        for (int i = 0; i < cardCount; i++) {
+            TrelloList list = board.getLists().get(i % LIST_NAMES.length);
+            list.getCards().add(card(i, list, i % 2 == 0 ? owner : null));
+        }
+        return board;
+    }
+
+    static List<Card> cards(Board board) {
+        List<Card> cards = new ArrayList<>();
+        board.getLists().forEach(list -> cards.addAll(list.getCards()));
+        return cards;
+    }
+
+    private static Card card(int index, TrelloList list, User assignee) {
+        Card card = new Card();
+        card.setTitle("Card " + index);
+        card.setDescription("Description for card " + index + " with a sentence or two of detail about the work.");
+        card.setLabel(index % 3 == 0 ? "bug" : "feature");
+        card.setDueDate("2025-12-" + String.format("%02d", index % 28 + 1));
+        card.setList(list);
+        card.setAssignedUser(assignee);
+        card.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 0).plusMinutes(index));
+        card.setCurrentState(list.getName());
+        card.setComments(new ArrayList<>(List.of("Looks good", "Needs review")));
+        card.setStateHistory(new ArrayList<>(List.of("Created -> To Do", "To Do -> " + list.getName())));
+        return card;
+    }
+}
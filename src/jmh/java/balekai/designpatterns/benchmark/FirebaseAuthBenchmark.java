@@ -0,0 +1,81 @@
+package balekai.designpatterns.benchmark;
+
+import balekai.designpatterns.TrellloApplication;
+import balekai.designpatterns.security.FirebaseIdentity;
+import balekai.designpatterns.security.LocalFirebaseTokenVerifier;
+import balekai.designpatterns.service.FirebaseAuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Firebase login path offline, using the local RSA stand-in verifier: a bare signature
+ * check versus FirebaseAuthService with its token and user-id caches warm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FirebaseAuthBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private LocalFirebaseTokenVerifier verifier;
+    private FirebaseAuthService firebaseAuthService;
+    private MockHttpServletRequest request;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TrellloApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--firebase.verifier=local");
+
+        verifier = context.getBean(LocalFirebaseTokenVerifier.class);
+        firebaseAuthService = context.getBean(FirebaseAuthService.class);
+        token = verifier.issueToken("bench-firebase-uid", "firebase@bench.local", "Firebase Bench", Duration.ofHours(1));
+        request = new MockHttpServletRequest("GET", "/boards");
+        request.addHeader("Authorization", "Bearer " + token);
+        // First call creates the user and fills both caches
+        firebaseAuthService.authenticateAndGetUserId(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FirebaseIdentity verifySignature() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public String authenticateCached() {
+        return firebaseAuthService.authenticateAndGetUserId(request);
+    }
+}
@@ -0,0 +1,55 @@
+package balekai.designpatterns.benchmark;
+
+import balekai.designpatterns.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuance and verification as done on every login, refresh and authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "QE2euE6XuT/euByteUpbkdlvNr/ee1WEFcmGTej47Ao=");
+        accessToken = jwtService.generateAccessToken("bench@bench.local", "bench-session");
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken("bench@bench.local", "bench-session");
+    }
+
+    @Benchmark
+    public Map<String, String> generateTokenPair() {
+        return jwtService.generateTokenPair("bench@bench.local");
+    }
+
+    // What JwtAuthenticationFilter does per request
+    @Benchmark
+    public Object parseClaims() {
+        return jwtService.parseClaims(accessToken);
+    }
+}
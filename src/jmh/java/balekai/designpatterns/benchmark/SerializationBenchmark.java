@@ -0,0 +1,81 @@
+package balekai.designpatterns.benchmark;
+
+import balekai.designpatterns.model.Board;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full board graph in each encoding the API negotiates: {@code serialize} is the server's
+ * cost per response, {@code parse} a client decoding it into plain maps and lists. The mappers
+ * are configured the same way as the HTTP message converters (see BinaryEncodingConfig).
+ * The encoded payload size of each run is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int cards;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private Board board;
+    private ObjectMapper mapper;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        Board graph = BoardFixtures.board(BoardFixtures.user("bench-owner"), cards);
+        long id = 1;
+        graph.setId(id++);
+        for (var list : graph.getLists()) {
+            list.setId(id++);
+        }
+        for (var card : BoardFixtures.cards(graph)) {
+            card.setId(id++);
+        }
+        board = graph;
+
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build()).build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        encoded = mapper.writeValueAsBytes(board);
+        System.out.printf("%n%s, %d cards: %d bytes encoded%n", format, cards, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(board);
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        return mapper.readValue(encoded, Object.class);
+    }
+}
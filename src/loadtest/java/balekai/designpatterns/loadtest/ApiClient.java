@@ -0,0 +1,87 @@
+package balekai.designpatterns.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Issues one {@link Operation} for a session over HTTP and keeps the session's tokens current.
+ */
+class ApiClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * @return the HTTP status of the response
+     */
+    int execute(Operation operation, Session session) throws IOException, InterruptedException {
+        return switch (operation) {
+            case LOGIN -> login(session);
+            case OPEN_BOARD -> send(authorized(session, "/boards/" + session.randomBoard().id()).GET()).statusCode();
+            case MOVE_CARD -> {
+                Session.SeededBoard board = session.randomBoard();
+                String path = "/cards/" + board.randomCard() + "/move?listId=" + board.randomList();
+                yield send(authorized(session, path).PUT(HttpRequest.BodyPublishers.noBody())).statusCode();
+            }
+            case REFRESH -> refresh(session);
+        };
+    }
+
+    int login(Session session) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/auth/login",
+                Map.of("email", session.email, "password", Seeder.PASSWORD));
+        if (response.statusCode() == 200) {
+            storeTokens(session, response.body());
+        }
+        return response.statusCode();
+    }
+
+    private int refresh(Session session) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/auth/refresh", Map.of("refreshToken", session.refreshToken));
+        if (response.statusCode() == 200) {
+            storeTokens(session, response.body());
+        } else {
+            // Keep the session usable for the rest of the run
+            login(session);
+        }
+        return response.statusCode();
+    }
+
+    private HttpResponse<String> post(String path, Map<String, String> body) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    }
+
+    private HttpRequest.Builder authorized(Session session, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + session.accessToken);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void storeTokens(Session session, String body) throws IOException {
+        JsonNode tokens = objectMapper.readTree(body);
+        session.accessToken = tokens.get("accessToken").asText();
+        session.refreshToken = tokens.get("refreshToken").asText();
+    }
+}
@@ -0,0 +1,118 @@
+package balekai.designpatterns.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and error counts for the measured window.
+ *
+ * In the open model latency is taken from the request's scheduled start, not from when a
+ * worker picked it up, so time spent queued behind a slow server is counted
+ * (no coordinated omission).
+ */
+class LatencyReport {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final long startNanos;
+    private final long endNanos;
+
+    /**
+     * @param startNanos start of the measured window (after warm-up), in {@link System#nanoTime()}
+     * @param endNanos   end of the measured window
+     */
+    LatencyReport(long startNanos, long endNanos) {
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Records a request scheduled at {@code intendedStartNanos}; requests scheduled outside
+     * the measured window (warm-up, or after the end) are ignored.
+     */
+    void record(Operation operation, long intendedStartNanos, long completedNanos, boolean success) {
+        if (intendedStartNanos < startNanos || intendedStartNanos >= endNanos) {
+            return;
+        }
+        latencies.get(operation).recordValue(Math.min(completedNanos - intendedStartNanos, MAX_TRACKABLE_NANOS));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void print() {
+        double seconds = (endNanos - startNanos) / 1e9;
+        System.out.printf("%n%-24s %9s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total += histogram.getTotalCount();
+            System.out.printf("%-24s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.endpoint, histogram.getTotalCount(), errors.get(operation).sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()));
+        }
+        System.out.printf("%-24s %9d %8s %10.1f%n%n", "total", total, "", total / seconds);
+    }
+
+    void write(File file, LoadTestOptions options) throws IOException {
+        double seconds = (endNanos - startNanos) / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", histogram.getTotalCount());
+            stats.put("errors", errors.get(operation).sum());
+            stats.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+            stats.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            stats.put("p95Ms", millis(histogram.getValueAtPercentile(95)));
+            stats.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            stats.put("maxMs", millis(histogram.getMaxValue()));
+            endpoints.put(operation.endpoint, stats);
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("db", options.db);
+        config.put("users", options.users);
+        config.put("boardsPerUser", options.boardsPerUser);
+        config.put("cardsPerBoard", options.cardsPerBoard);
+        config.put("concurrency", options.concurrency);
+        config.put("model", options.openModel() ? "open" : "closed");
+        config.put("ratePerSecond", options.rate);
+        config.put("durationSeconds", seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("endpoints", endpoints);
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,193 @@
+package balekai.designpatterns.loadtest;
+
+import balekai.designpatterns.TrellloApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load-generation harness: boots the application on a random port against a local database,
+ * seeds users/boards/cards, replays a weighted mix of operations and reports throughput and
+ * p50/p95/p99 latency per endpoint. See {@link LoadTestOptions} for the knobs.
+ *
+ * Two load models are supported:
+ * <ul>
+ *     <li>closed ({@code --rate=0}): {@code concurrency} virtual users issue requests back to back</li>
+ *     <li>open ({@code --rate=N}): requests arrive as a Poisson process at N/s regardless of how fast
+ *     the server answers, served by {@code concurrency} workers</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private final LoadTestOptions options;
+    private final ApiClient client;
+    private final BlockingQueue<Session> sessions;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadTest(LoadTestOptions options, ApiClient client, List<Session> sessions) {
+        this.options = options;
+        this.client = client;
+        List<Session> shuffled = new ArrayList<>(sessions);
+        Collections.shuffle(shuffled);
+        this.sessions = new LinkedBlockingQueue<>(shuffled);
+
+        this.operations = options.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += options.mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = start(options);
+        Seeder seeder = new Seeder(context);
+        try {
+            long seedStart = System.nanoTime();
+            List<Session> sessions = seeder.seed(options);
+            System.out.printf("Seeded %d users, %d boards, %d cards in %d ms%n", options.users,
+                    options.users * options.boardsPerUser, options.users * options.boardsPerUser * options.cardsPerBoard,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            ApiClient client = new ApiClient("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            for (Session session : sessions) {
+                if (client.login(session) != 200) {
+                    throw new IllegalStateException("Initial login failed for " + session.email);
+                }
+            }
+
+            LatencyReport report = new LoadTest(options, client, sessions).run();
+            report.print();
+            if (options.report != null) {
+                report.write(new File(options.report), options);
+                System.out.println("Report written to " + options.report);
+            }
+        } finally {
+            seeder.cleanUp();
+            context.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                // Every virtual user logs in from 127.0.0.1
+                "--security.login-throttle.ip.capacity=1000000",
+                "--security.login-throttle.email.capacity=1000000"));
+        if ("h2".equals(options.db)) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        } else if (!"postgres".equals(options.db)) {
+            throw new IllegalArgumentException("Unknown --db: " + options.db);
+        }
+        args.addAll(options.applicationArgs);
+        // Devtools' restart classloader would relaunch the app on a second thread
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(TrellloApplication.class).run(args.toArray(new String[0]));
+    }
+
+    LatencyReport run() throws InterruptedException {
+        long warmupNanos = options.warmup.toNanos();
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + options.duration.toNanos();
+        LatencyReport report = new LatencyReport(measureStart, end);
+
+        System.out.printf("Running %s model, concurrency %d%s, warm-up %ds, measuring %ds, mix %s%n",
+                options.openModel() ? "open" : "closed", options.concurrency,
+                options.openModel() ? ", " + options.rate + " req/s" : "",
+                options.warmup.toSeconds(), options.duration.toSeconds(), mixDescription());
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        if (options.openModel()) {
+            // Exponential inter-arrival times; the dispatcher never waits for responses
+            double meanGapNanos = 1e9 / options.rate;
+            long next = start;
+            while (next < end) {
+                LockSupport.parkNanos(next - System.nanoTime());
+                long intendedStart = next;
+                workers.execute(() -> issue(report, intendedStart));
+                next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+            }
+        } else {
+            for (int i = 0; i < options.concurrency; i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                        issue(report, System.nanoTime());
+                    }
+                });
+            }
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(options.duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+            System.out.println("Requests still queued after the run; the server can't keep up with the arrival rate");
+            workers.shutdownNow();
+        }
+        return report;
+    }
+
+    private void issue(LatencyReport report, long intendedStart) {
+        Operation operation = nextOperation();
+        boolean success = false;
+        Session session = null;
+        try {
+            // Waiting for a free session counts towards latency, like waiting for a connection would
+            session = sessions.take();
+            int status = client.execute(operation, session);
+            success = status >= 200 && status < 300;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // Connection errors are recorded as failed requests
+        } finally {
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
+        report.record(operation, intendedStart, System.nanoTime(), success);
+    }
+
+    private Operation nextOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private String mixDescription() {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<Operation, Integer> entry : options.mix.entrySet()) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(entry.getKey().optionName).append(':').append(entry.getValue());
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package balekai.designpatterns.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link LoadTest}, given as {@code --name=value}.
+ * Anything starting with {@code --spring.}, {@code --security.} etc. that isn't a harness
+ * option is passed through to the application, e.g. {@code --spring.datasource.url=...}.
+ *
+ * <pre>
+ * --db=postgres|h2        local Postgres from application.properties (default) or in-memory H2
+ * --users=50              seeded users; each is one session, so keep it >= concurrency
+ * --boards-per-user=2
+ * --cards-per-board=100
+ * --concurrency=32        worker threads (closed model: virtual users)
+ * --rate=0                arrivals per second, Poisson; 0 runs a closed model instead
+ * --warmup=10s            excluded from the report
+ * --duration=60s
+ * --mix=login:5,open-board:55,move-card:35,refresh:5
+ * --report=path.json
+ * </pre>
+ */
+class LoadTestOptions {
+
+    String db = "postgres";
+    int users = 50;
+    int boardsPerUser = 2;
+    int cardsPerBoard = 100;
+    int concurrency = 32;
+    double rate = 0;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    Map<Operation, Integer> mix = parseMix("login:5,open-board:55,move-card:35,refresh:5");
+    String report;
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "db" -> options.db = value;
+                case "users" -> options.users = Integer.parseInt(value);
+                case "boards-per-user" -> options.boardsPerUser = Integer.parseInt(value);
+                case "cards-per-board" -> options.cardsPerBoard = Integer.parseInt(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "report" -> options.report = value;
+                default -> options.applicationArgs.add(arg);
+            }
+        }
+        if (options.users < 1 || options.boardsPerUser < 1 || options.cardsPerBoard < 1
+                || options.concurrency < 1 || options.rate < 0) {
+            throw new IllegalArgumentException("users, boards-per-user, cards-per-board and concurrency must be positive, rate >= 0");
+        }
+        return options;
+    }
+
+    boolean openModel() {
+        return rate > 0;
+    }
+
+    // "90s", "5m" or plain seconds
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value.endsWith("s") ? value.substring(0, value.length() - 1) : value));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                mix.put(Operation.fromName(parts[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations: " + value);
+        }
+        return mix;
+    }
+}
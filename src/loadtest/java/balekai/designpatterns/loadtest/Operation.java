@@ -0,0 +1,29 @@
+package balekai.designpatterns.loadtest;
+
+/**
+ * The requests replayed by the harness, named as they appear in {@code --mix}.
+ */
+enum Operation {
+
+    LOGIN("login", "POST /auth/login"),
+    OPEN_BOARD("open-board", "GET /boards/{id}"),
+    MOVE_CARD("move-card", "PUT /cards/{id}/move"),
+    REFRESH("refresh", "POST /auth/refresh");
+
+    final String optionName;
+    final String endpoint;
+
+    Operation(String optionName, String endpoint) {
+        this.optionName = optionName;
+        this.endpoint = endpoint;
+    }
+
+    static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.optionName.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + name);
+    }
+}
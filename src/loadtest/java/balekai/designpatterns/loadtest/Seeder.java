@@ -0,0 +1,104 @@
+package balekai.designpatterns.loadtest;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.Card;
+import balekai.designpatterns.model.TrelloList;
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.service.PasswordHashingService;
+import org.springframework.context.ApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds users, boards, lists and cards through the application's own repositories.
+ * Every run uses fresh ids and emails so it can share a database with earlier runs,
+ * and {@link #cleanUp()} removes what it created.
+ */
+class Seeder {
+
+    static final String PASSWORD = "loadtest-password";
+    private static final String[] LIST_NAMES = {"To Do", "In Progress", "Done"};
+
+    private final UserRepository userRepository;
+    private final BoardRepository boardRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> boardIds = new ArrayList<>();
+
+    Seeder(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.boardRepository = context.getBean(BoardRepository.class);
+        this.passwordHashingService = context.getBean(PasswordHashingService.class);
+    }
+
+    List<Session> seed(LoadTestOptions options) {
+        // One hash for everyone: seeding shouldn't take users x BCrypt time
+        String hash = passwordHashingService.hash(PASSWORD);
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < options.users; i++) {
+            String id = "loadtest_" + runId + "_" + i;
+            User user = userRepository.save(User.builder()
+                    .id(id)
+                    .name("Load Test " + i)
+                    .email(id + "@loadtest.local")
+                    .password(hash)
+                    .build());
+            users.add(user);
+
+            List<Session.SeededBoard> boards = new ArrayList<>();
+            for (int b = 0; b < options.boardsPerUser; b++) {
+                Board board = boardRepository.save(board(user, b, options.cardsPerBoard));
+                boardIds.add(board.getId());
+                List<Long> listIds = board.getLists().stream().map(TrelloList::getId).toList();
+                List<Long> cardIds = board.getLists().stream()
+                        .flatMap(list -> list.getCards().stream())
+                        .map(Card::getId)
+                        .toList();
+                boards.add(new Session.SeededBoard(board.getId(), listIds, cardIds));
+            }
+            sessions.add(new Session(user.getEmail(), boards));
+        }
+        return sessions;
+    }
+
+    void cleanUp() {
+        // Boards first: cascades to lists and cards, which reference the users
+        boardRepository.deleteAllById(boardIds);
+        userRepository.deleteAll(users);
+    }
+
+    private static Board board(User owner, int index, int cardCount) {
+        Board board = new Board();
+        board.setName("Load test board " + index);
+        board.setOwnerId(owner.getId());
+        board.setOwnerName(owner.getName());
+        board.setVisibility("private");
+        board.setAPrivate(true);
+        board.setLists(new ArrayList<>());
+        for (String name : LIST_NAMES) {
+            TrelloList list = new TrelloList();
+            list.setName(name);
+            list.setBoard(board);
+            board.getLists().add(list);
+        }
+        for (int i = 0; i < cardCount; i++) {
+            TrelloList list = board.getLists().get(i % LIST_NAMES.length);
+            Card card = new Card();
+            card.setTitle("Card " + i);
+            card.setDescription("Seeded by the load test harness");
+            card.setLabel(i % 3 == 0 ? "bug" : "feature");
+            card.setList(list);
+            card.setAssignedUser(i % 2 == 0 ? owner : null);
+            card.setCreatedAt(LocalDateTime.now());
+            card.setCurrentState(list.getName());
+            card.setStateHistory(new ArrayList<>(List.of("Created -> " + list.getName())));
+            list.getCards().add(card);
+        }
+        return board;
+    }
+}
@@ -0,0 +1,36 @@
+package balekai.designpatterns.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A seeded user and the tokens of its current login. A session is only ever used by one
+ * request at a time: refresh tokens rotate, and presenting one twice revokes the session.
+ */
+class Session {
+
+    final String email;
+    final List<SeededBoard> boards;
+    String accessToken;
+    String refreshToken;
+
+    Session(String email, List<SeededBoard> boards) {
+        this.email = email;
+        this.boards = boards;
+    }
+
+    SeededBoard randomBoard() {
+        return boards.get(ThreadLocalRandom.current().nextInt(boards.size()));
+    }
+
+    record SeededBoard(long id, List<Long> listIds, List<Long> cardIds) {
+
+        long randomList() {
+            return listIds.get(ThreadLocalRandom.current().nextInt(listIds.size()));
+        }
+
+        long randomCard() {
+            return cardIds.get(ThreadLocalRandom.current().nextInt(cardIds.size()));
+        }
+    }
+}
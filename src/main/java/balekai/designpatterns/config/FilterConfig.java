@@ -1,5 +1,6 @@
 package balekai.designpatterns.config;
 
+import balekai.designpatterns.security.IdempotencyFilter;
 import balekai.designpatterns.security.JwtAuthenticationFilter;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -19,4 +20,15 @@ public class FilterConfig {
         registration.setOrder(1);
         return registration;
     }
+
+    // After JWT authentication, so idempotency keys are scoped to the authenticated user
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration(IdempotencyFilter idempotencyFilter) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(idempotencyFilter);
+        registration.addUrlPatterns("/*");
+        registration.setName("idempotencyFilter");
+        registration.setOrder(2);
+        return registration;
+    }
 }
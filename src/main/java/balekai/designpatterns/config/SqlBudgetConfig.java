@@ -0,0 +1,72 @@
+package balekai.designpatterns.config;
+
+import balekai.designpatterns.monitoring.SqlBudgetDataSource;
+import balekai.designpatterns.monitoring.SqlBudgetFilter;
+import balekai.designpatterns.monitoring.SqlBudgetInterceptor;
+import balekai.designpatterns.monitoring.SqlBudgetProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the per-request SQL statement budget: the DataSource reports each statement and its
+ * execution time, a filter scopes the counts to the request and an interceptor applies the
+ * handling endpoint's budget.
+ */
+@Configuration
+@Profile("!test") // Don't load this configuration in test profile
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+@ConditionalOnProperty(prefix = "sql.budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetConfig implements WebMvcConfigurer {
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlBudgetConfig(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Static, so the DataSource can be wrapped before anything else picks it up
+    @Bean
+    public static BeanPostProcessor sqlBudgetDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof SqlBudgetDataSource)
+                        ? new SqlBudgetDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    // Ahead of JwtAuthenticationFilter (order 1), so the revocation and idempotency lookups are counted
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilterRegistration() {
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new SqlBudgetFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/*");
+        registration.setName("sqlBudgetFilter");
+        registration.setOrder(0);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlBudgetInterceptor(properties));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new SqlBudgetInterceptor(properties));
+    }
+}
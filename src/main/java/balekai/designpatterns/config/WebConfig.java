@@ -26,7 +26,7 @@ public class WebConfig implements WebMvcConfigurer {
                     "https://kardo-zeta.vercel.app",
                     "https://kardo-fp8vcuzd6-nishanthvaidyas-projects.vercel.app"
                 )
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
                 .allowCredentials(true)
                 .maxAge(3600);
@@ -45,7 +45,7 @@ public class WebConfig implements WebMvcConfigurer {
             "https://kardo-zeta.vercel.app",
             "https://kardo-fp8vcuzd6-nishanthvaidyas-projects.vercel.app"
         ));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
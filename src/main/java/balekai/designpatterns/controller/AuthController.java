@@ -1,21 +1,28 @@
 package balekai.designpatterns.controller;
-import org.mindrot.jbcrypt.BCrypt;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import balekai.designpatterns.exception.ServiceOverloadedException;
 import balekai.designpatterns.model.User;
 import balekai.designpatterns.repository.UserRepository;
 import balekai.designpatterns.request.LoginRequest;
 import balekai.designpatterns.request.RegisterRequest;
+import balekai.designpatterns.security.LoginRateLimiter;
 import balekai.designpatterns.service.JwtService;
+import balekai.designpatterns.service.PasswordHashingService;
+import balekai.designpatterns.service.TokenRevocationService;
+import balekai.designpatterns.service.UserCleanupService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Map;
 import java.util.UUID;
-import java.util.List;
 
 @RestController
 @RequestMapping("/auth")
@@ -26,6 +33,10 @@ public class AuthController {
 
     private final UserRepository userRepository;
     private final JwtService jwtService;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserCleanupService userCleanupService;
 
     @GetMapping("/db-test")
     public ResponseEntity<?> testDatabase() {
@@ -88,37 +99,18 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
-        long startTime = System.currentTimeMillis();
-        
-        log.info("[{}] REGISTER_START - Email: {}, Name: {}", requestId, request.getEmail(), request.getName());
-        
+    public ResponseEntity<?> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.checkAttempt(request.getEmail(), httpRequest);
+
         try {
-            // Step 1: Check if email exists
-            log.info("[{}] REGISTER_STEP_1 - Checking email existence", requestId);
-            long step1Start = System.currentTimeMillis();
-            
             if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-                log.warn("[{}] REGISTER_FAILED - Email already exists: {}", requestId, request.getEmail());
+                log.warn("Registration rejected, email already in use: {}", request.getEmail());
                 return ResponseEntity.badRequest().body("Email already in use");
             }
-            
-            long step1Time = System.currentTimeMillis() - step1Start;
-            log.info("[{}] REGISTER_STEP_1_COMPLETE - Email check took {}ms", requestId, step1Time);
 
-            // Step 2: Hash password with optimized cost
-            log.info("[{}] REGISTER_STEP_2 - Starting password hash", requestId);
-            long step2Start = System.currentTimeMillis();
-            
-            // Use cost 8 for faster hashing on constrained containers
-            String hashedPassword = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt(8));
-            
-            long step2Time = System.currentTimeMillis() - step2Start;
-            log.info("[{}] REGISTER_STEP_2_COMPLETE - Password hash took {}ms", requestId, step2Time);
+            // Hashed on the bounded hashing pool (cost calibrated at startup)
+            String hashedPassword = passwordHashingService.hash(request.getPassword());
 
-            // Step 3: Create user object
-            log.info("[{}] REGISTER_STEP_3 - Creating user object", requestId);
             String userId = "user_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
 
             User user = User.builder()
@@ -128,39 +120,27 @@ public class AuthController {
                     .password(hashedPassword)
                     .build();
 
-            // Step 4: Save to database
-            log.info("[{}] REGISTER_STEP_4 - Saving user to database", requestId);
-            long step4Start = System.currentTimeMillis();
-            
             userRepository.save(user);
-            
-            long step4Time = System.currentTimeMillis() - step4Start;
-            log.info("[{}] REGISTER_STEP_4_COMPLETE - Database save took {}ms", requestId, step4Time);
 
-            // Step 5: Generate JWT tokens
-            log.info("[{}] REGISTER_STEP_5 - Generating JWT tokens", requestId);
-            long step5Start = System.currentTimeMillis();
-            
             Map<String, String> tokens = jwtService.generateTokenPair(user.getEmail());
-            
-            long step5Time = System.currentTimeMillis() - step5Start;
-            log.info("[{}] REGISTER_STEP_5_COMPLETE - JWT generation took {}ms", requestId, step5Time);
-
-            long totalTime = System.currentTimeMillis() - startTime;
-            log.info("[{}] REGISTER_SUCCESS - Total time: {}ms, UserId: {}", requestId, totalTime, userId);
+            log.info("Registered user {}", userId);
             
             // Return only tokens (previous behavior)
             return ResponseEntity.ok(tokens);
             
+        } catch (ServiceOverloadedException e) {
+            log.warn("Registration shed, password hashing pool is saturated");
+            throw e;
         } catch (Exception e) {
-            long totalTime = System.currentTimeMillis() - startTime;
-            log.error("[{}] REGISTER_ERROR - Failed after {}ms: {}", requestId, totalTime, e.getMessage(), e);
+            log.error("Registration failed: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Registration failed: " + e.getMessage());
         }
     }
 
     @PostMapping("/register-debug")
-    public ResponseEntity<?> registerDebug(@RequestBody RegisterRequest request) {
+    public ResponseEntity<?> registerDebug(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.checkAttempt(request.getEmail(), httpRequest);
+
         String requestId = UUID.randomUUID().toString().substring(0, 8);
         long startTime = System.currentTimeMillis();
         
@@ -238,7 +218,9 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.checkAttempt(request.getEmail(), httpRequest);
+
         Optional<User> userOptional = userRepository.findByEmail(request.getEmail());
 
         if (userOptional.isEmpty()) {
@@ -247,10 +229,13 @@ public class AuthController {
 
         User user = userOptional.get();
 
-        if (!BCrypt.checkpw(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.verify(request.getPassword(), user.getPassword())) {
             return ResponseEntity.status(401).body("Invalid credentials");
         }
 
+        // Bring hashes created with an older cost up to the calibrated one
+        passwordHashingService.upgradeHashIfNeeded(user, request.getPassword());
+
         // Generate both access and refresh tokens
         Map<String, String> tokens = jwtService.generateTokenPair(user.getEmail());
         
@@ -267,26 +252,42 @@ public class AuthController {
         }
         
         try {
-            // Validate the refresh token
-            if (jwtService.isTokenExpired(refreshToken)) {
+            // Validate signature, expiry and type with a single parse
+            Claims claims;
+            try {
+                claims = jwtService.parseClaims(refreshToken);
+            } catch (ExpiredJwtException e) {
                 return ResponseEntity.status(401).body("Refresh token has expired");
             }
             
-            if (!jwtService.isRefreshToken(refreshToken)) {
+            if (!"refresh".equals(claims.get("type", String.class))) {
                 return ResponseEntity.status(401).body("Invalid refresh token type");
             }
-            
-            // Extract username from refresh token
-            String username = jwtService.extractUsername(refreshToken);
-            
-            // Verify user still exists
-            Optional<User> userOptional = userRepository.findByEmail(username);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.status(401).body("User not found");
+
+            String username = claims.getSubject();
+            String sessionId = claims.get("sid", String.class);
+            if (claims.getId() == null || sessionId == null) {
+                // Issued before rotation was introduced; these can't be revoked, so make the user log in again
+                return ResponseEntity.status(401).body("Invalid refresh token");
+            }
+            // Tokens from before the rotation counter count as the first generation
+            Long generationClaim = claims.get("gen", Long.class);
+            long generation = generationClaim != null ? generationClaim : 0;
+
+            // In-memory check; no database round trip unless the session might be revoked
+            if (tokenRevocationService.isRevoked(sessionId)) {
+                return ResponseEntity.status(401).body("Session has been revoked");
+            }
+
+            // Rotation: each refresh token is accepted once. A second use means it leaked, so end the session.
+            if (!tokenRevocationService.consumeRefresh(sessionId, generation, claims.getExpiration().toInstant())) {
+                log.warn("Refresh token reuse detected for user: {}, revoking session", username);
+                tokenRevocationService.revokeSession(sessionId, sessionRevocationExpiry());
+                return ResponseEntity.status(401).body("Refresh token has already been used");
             }
             
-            // Generate new token pair
-            Map<String, String> newTokens = jwtService.generateTokenPair(username);
+            // Generate new token pair in the same session
+            Map<String, String> newTokens = jwtService.generateTokenPair(username, sessionId, generation + 1);
             
             log.info("Token refreshed successfully for user: {}", username);
             return ResponseEntity.ok(newTokens);
@@ -297,60 +298,66 @@ public class AuthController {
         }
     }
 
-    @DeleteMapping("/cleanup-test-users")
-    public ResponseEntity<?> cleanupTestUsers() {
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
-        long startTime = System.currentTimeMillis();
-        
-        log.info("[{}] CLEANUP_START - Removing test users", requestId);
-        
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return ResponseEntity.status(400).body("Refresh token is required");
+        }
+
+        Claims claims;
         try {
-            // Find and delete test users
-            List<User> allUsers = userRepository.findAll();
-            int deletedCount = 0;
-            
-            for (User user : allUsers) {
-                // Delete users with test patterns
-                if (user.getId().startsWith("test-user-") || 
-                    user.getId().startsWith("debug_user_") ||
-                    user.getId().startsWith("user_") ||
-                    user.getEmail().contains("@test.com") ||
-                    user.getEmail().contains("test-") ||
-                    user.getEmail().contains("debug-") ||
-                    user.getName().contains("Test") ||
-                    user.getName().contains("AWS Test")) {
-                    
-                    log.info("[{}] DELETING_TEST_USER - ID: {}, Email: {}, Name: {}", 
-                        requestId, user.getId(), user.getEmail(), user.getName());
-                    
-                    userRepository.delete(user);
-                    deletedCount++;
-                }
-            }
-            
-            long totalTime = System.currentTimeMillis() - startTime;
-            long remainingUsers = userRepository.count();
-            
-            log.info("[{}] CLEANUP_SUCCESS - Deleted {} test users, {} users remaining, took {}ms", 
-                requestId, deletedCount, remainingUsers, totalTime);
-            
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "requestId", requestId,
-                "deletedCount", deletedCount,
-                "remainingUsers", remainingUsers,
-                "totalTime", totalTime
-            ));
-            
+            claims = jwtService.parseClaims(refreshToken);
+        } catch (ExpiredJwtException e) {
+            // Nothing left to revoke
+            return ResponseEntity.ok(Map.of("status", "logged out"));
         } catch (Exception e) {
-            long totalTime = System.currentTimeMillis() - startTime;
-            log.error("[{}] CLEANUP_FAILED - Error: {}, took {}ms", requestId, e.getMessage(), totalTime);
-            return ResponseEntity.status(500).body(Map.of(
-                "status", "error",
-                "requestId", requestId,
-                "error", e.getMessage(),
-                "totalTime", totalTime
-            ));
+            return ResponseEntity.status(401).body("Invalid refresh token");
+        }
+
+        String sessionId = claims.get("sid", String.class);
+        if (sessionId != null) {
+            // Revoking the session invalidates its refresh token and any access tokens still in flight
+            tokenRevocationService.revokeSession(sessionId, sessionRevocationExpiry());
+            log.info("Session revoked on logout for user: {}", claims.getSubject());
+        }
+        return ResponseEntity.ok(Map.of("status", "logged out"));
+    }
+
+    // A session can be extended by rotation, but none of its tokens outlives one refresh period from now
+    private Instant sessionRevocationExpiry() {
+        return Instant.now().plusMillis(jwtService.getRefreshTokenExpirationMillis());
+    }
+
+    // Starts the cleanup in the background; poll the status endpoint for progress
+    @DeleteMapping("/cleanup-test-users")
+    public ResponseEntity<?> cleanupTestUsers(HttpServletRequest request) {
+        ResponseEntity<?> denied = checkCleanupAccess(request);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.accepted().body(userCleanupService.start());
+    }
+
+    @GetMapping("/cleanup-test-users/status")
+    public ResponseEntity<?> cleanupTestUsersStatus(HttpServletRequest request) {
+        ResponseEntity<?> denied = checkCleanupAccess(request);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(userCleanupService.getStatus());
+    }
+
+    // The cleanup endpoints are authenticated by JwtAuthenticationFilter and restricted to cleanup.admin-emails
+    private ResponseEntity<?> checkCleanupAccess(HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!userCleanupService.isAdmin(userEmail)) {
+            log.warn("Test user cleanup denied for {}", userEmail);
+            return ResponseEntity.status(403).body("Access denied: Test user cleanup is restricted to administrators");
         }
+        return null;
     }
 }
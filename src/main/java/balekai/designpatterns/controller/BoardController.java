@@ -4,7 +4,9 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
+import balekai.designpatterns.exception.VersionConflictException;
 import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.BoardMember;
 import balekai.designpatterns.model.TrelloList;
 import balekai.designpatterns.repository.BoardRepository;
 import balekai.designpatterns.repository.TrelloListRepository;
@@ -13,10 +15,23 @@ import balekai.designpatterns.factory.StandardBoardFactory;
 import balekai.designpatterns.factory.PrivateBoardFactory;
 import balekai.designpatterns.repository.UserRepository;
 import balekai.designpatterns.model.User;
-
+import balekai.designpatterns.response.FieldSelection;
+import balekai.designpatterns.security.BoardAccessPolicy;
+import balekai.designpatterns.service.BoardCounterService;
+import balekai.designpatterns.service.BoardMemberService;
+import balekai.designpatterns.service.BoardTransferService;
+import balekai.designpatterns.service.CardAnalyticsService;
+import balekai.designpatterns.service.CardArchiveService;
+import balekai.designpatterns.service.OutboxService;
+import balekai.designpatterns.service.SparseFieldsetService;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -40,10 +55,34 @@ public class BoardController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SparseFieldsetService sparseFieldsetService;
+
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private CardAnalyticsService cardAnalyticsService;
+
+    @Autowired
+    private CardArchiveService cardArchiveService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BoardTransferService boardTransferService;
+
+    @Autowired
+    private BoardAccessPolicy boardAccessPolicy;
+
+    @Autowired
+    private BoardMemberService boardMemberService;
+
     // ✅ AUTHENTICATED USER'S OWN BOARDS ONLY
     @GetMapping("/me")
     @Transactional(readOnly = true)
-    public ResponseEntity<?> getMyBoards(HttpServletRequest request) {
+    public ResponseEntity<?> getMyBoards(@RequestParam(required = false) String fields, HttpServletRequest request) {
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
             return ResponseEntity.status(401).body("Unauthorized");
@@ -56,6 +95,11 @@ public class BoardController {
         }
 
         List<Board> boards = boardRepository.findByOwnerId(user.getId());
+
+        // Sparse fieldset: only the selected columns are queried and serialized
+        if (fields != null) {
+            return ResponseEntity.ok(sparseFieldsetService.renderBoards(boards, FieldSelection.parse(fields)));
+        }
         
         // Initialize lazy collections to avoid Hibernate lazy loading issues
         boards.forEach(board -> {
@@ -85,10 +129,10 @@ public class BoardController {
         return ResponseEntity.ok(boards);
     }
 
-    // ✅ ACCESSIBLE TO ALL - Public boards + own private boards
+    // ✅ ACCESSIBLE BOARDS - Own boards + boards shared with the user
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<?> getAccessibleBoards(HttpServletRequest request) {
+    public ResponseEntity<?> getAccessibleBoards(@RequestParam(required = false) String fields, HttpServletRequest request) {
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         final String uid;
         
@@ -103,10 +147,16 @@ public class BoardController {
             uid = null;
         }
 
-        List<Board> allBoards = boardRepository.findAll();
+        // One index-driven query over the user's own boards and memberships, never a scan of all boards
+        List<Board> accessibleBoards = uid != null ? boardRepository.findAccessibleByUserId(uid) : List.of();
+
+        // Sparse fieldset: only the selected columns are queried and serialized
+        if (fields != null) {
+            return ResponseEntity.ok(sparseFieldsetService.renderBoards(accessibleBoards, FieldSelection.parse(fields)));
+        }
 
         // Initialize lazy collections to avoid Hibernate lazy loading issues
-        allBoards.forEach(board -> {
+        accessibleBoards.forEach(board -> {
             if (board.getLists() != null) {
                 board.getLists().size(); // Force initialization
                 // Also initialize cards within each list
@@ -130,18 +180,14 @@ public class BoardController {
             }
         });
 
-        // ✅ Show ONLY boards created/owned by the authenticated user
-        List<Board> accessibleBoards = allBoards.stream()
-                .filter(board -> uid != null && uid.equals(board.getOwnerId()))
-                .toList();
-
-        log.info("Owner filtering: Found {} boards owned by user {}", accessibleBoards.size(), uid);
+        log.info("Found {} boards accessible to user {}", accessibleBoards.size(), uid);
         return ResponseEntity.ok(accessibleBoards);
     }
 
 
     // ✅ CREATE BOARD
     @PostMapping
+    @Transactional
     public ResponseEntity<Board> createBoard(@RequestBody BoardRequest boardRequest, HttpServletRequest request) {
         // Get the authenticated user's ID from JWT authentication
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
@@ -173,6 +219,7 @@ public class BoardController {
             list.setBoard(savedBoard);
             trelloListRepository.save(list);
         }
+        outboxService.board("board.created", savedBoard);
 
         return ResponseEntity.ok(savedBoard);
     }
@@ -180,7 +227,8 @@ public class BoardController {
     // ✅ GET BOARD BY ID
     @GetMapping("/{id}")
     @Transactional(readOnly = true)
-    public ResponseEntity<?> getBoard(@PathVariable Long id, HttpServletRequest request) {
+    public ResponseEntity<?> getBoard(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                      HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -192,13 +240,18 @@ public class BoardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
-        Board board = boardRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Board not found"));
-        
         // Check if user has access to this board
-        if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
+        if (!boardAccessPolicy.canReadBoard(authenticatedUser.getId(), id)) {
             return ResponseEntity.status(403).body("Access denied: Cannot access private boards you don't own");
         }
+
+        Board board = boardRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+
+        // Sparse fieldset: only the selected columns are queried and serialized
+        if (fields != null) {
+            return ResponseEntity.ok(sparseFieldsetService.renderBoard(board, FieldSelection.parse(fields)));
+        }
         
         // Initialize lazy collections to avoid Hibernate lazy loading issues
         if (board.getLists() != null) {
@@ -223,12 +276,119 @@ public class BoardController {
             });
         }
         
-        return ResponseEntity.ok(board);
+        return ResponseEntity.ok().eTag(String.valueOf(board.getVersion())).body(board);
+    }
+
+    // ✅ BOARD STATS - card counts from the board's counters, without loading its lists or cards
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<?> getBoardStats(@PathVariable Long id, HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!boardAccessPolicy.canReadBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot access private boards you don't own");
+        }
+
+        return ResponseEntity.ok(boardCounterService.stats(id));
+    }
+
+    // ✅ BOARD ANALYTICS - time in state, cycle time and cumulative flow over the last {days} days, from rollups
+    @GetMapping("/{id}/analytics")
+    public ResponseEntity<?> getBoardAnalytics(@PathVariable Long id, @RequestParam(defaultValue = "30") int days,
+                                               HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!boardAccessPolicy.canReadBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot access private boards you don't own");
+        }
+
+        return ResponseEntity.ok(cardAnalyticsService.analytics(id, days));
+    }
+
+    // ✅ ARCHIVED CARDS - finished cards moved out of the board, newest first; q searches title and description
+    @GetMapping("/{id}/archive")
+    public ResponseEntity<?> getArchivedCards(@PathVariable Long id,
+                                              @RequestParam(required = false) String q,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!boardAccessPolicy.canReadBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot access private boards you don't own");
+        }
+
+        return ResponseEntity.ok(cardArchiveService.page(id, q, cursor, limit));
+    }
+
+    // ✅ EXPORT BOARD - streamed as NDJSON (board, lists, then one line per card), never held in memory
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportBoard(@PathVariable Long id, HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!boardAccessPolicy.canReadBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        StreamingResponseBody body = out -> boardTransferService.exportBoard(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(BoardTransferService.MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"board-" + id + ".ndjson\"")
+                .body(body);
+    }
+
+    // ✅ IMPORT BOARD - reads an export stream line by line into a new private board owned by the caller
+    @PostMapping("/import")
+    public ResponseEntity<?> importBoard(HttpServletRequest request) throws IOException {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        return ResponseEntity.ok(boardTransferService.importBoard(request.getInputStream(), authenticatedUser));
     }
 
     // ✅ UPDATE BOARD
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateBoard(@PathVariable Long id, @RequestBody Board board, HttpServletRequest request) {
+    @Transactional
+    public ResponseEntity<?> updateBoard(@PathVariable Long id, @RequestBody Board board,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -240,24 +400,29 @@ public class BoardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
-        Board existingBoard = boardRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Board not found"));
-        
         // Check if user has access to update this board
-        if (existingBoard.isAPrivate() && !existingBoard.getOwnerId().equals(authenticatedUser.getId())) {
+        if (!boardAccessPolicy.canWriteBoard(authenticatedUser.getId(), id)) {
             return ResponseEntity.status(403).body("Access denied: Cannot update private boards you don't own");
         }
+
+        Board existingBoard = boardRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
         
+        VersionConflictException.checkIfMatch(ifMatch, existingBoard.getVersion(), existingBoard);
+
         existingBoard.setName(board.getName());
         // Don't allow changing ownerId - keep the original owner
         existingBoard.setOwnerName(board.getOwnerName());
         Board updatedBoard = boardRepository.save(existingBoard);
+        outboxService.board("board.updated", updatedBoard);
         return ResponseEntity.ok(updatedBoard);
     }
 
     // ✅ DELETE BOARD
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteBoard(@PathVariable Long id, HttpServletRequest request) {
+    @Transactional
+    public ResponseEntity<?> deleteBoard(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -269,17 +434,90 @@ public class BoardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if user has access to delete this board (owner or admin)
+        if (!boardAccessPolicy.canAdminBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot delete boards you don't own or administer");
+        }
+
         Board board = boardRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Board not found"));
         
-        // Check if user has access to delete this board
-        if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-            return ResponseEntity.status(403).body("Access denied: Cannot delete private boards you don't own");
-        }
-        
+        VersionConflictException.checkIfMatch(ifMatch, board.getVersion(), board);
+
         boardRepository.deleteById(id);
+        boardCounterService.boardDeleted(id);
+        cardAnalyticsService.boardDeleted(id);
+        cardArchiveService.boardDeleted(id);
+        boardMemberService.boardDeleted(id);
+        boardAccessPolicy.invalidate(id);
+        outboxService.board("board.deleted", board);
         return ResponseEntity.ok("Board deleted successfully");
     }
 
+    // ✅ LIST BOARD MEMBERS (owner first)
+    @GetMapping("/{id}/members")
+    public ResponseEntity<?> getMembers(@PathVariable Long id, HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!boardAccessPolicy.canReadBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot access private boards you don't own");
+        }
+
+        return ResponseEntity.ok(boardMemberService.members(id));
+    }
+
+    // ✅ SHARE BOARD / CHANGE A MEMBER'S ROLE (viewer, editor or admin)
+    @PutMapping("/{id}/members/{userId}")
+    public ResponseEntity<?> setMemberRole(@PathVariable Long id, @PathVariable String userId, @RequestParam String role,
+                                           HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!boardAccessPolicy.canAdminBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Only the board owner and admins can manage members");
+        }
+
+        BoardMember member = boardMemberService.setRole(id, userId, BoardMemberService.parseRole(role));
+        return ResponseEntity.ok(member);
+    }
+
+    // ✅ REMOVE A MEMBER (admins, or members leaving the board themselves)
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<?> removeMember(@PathVariable Long id, @PathVariable String userId, HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!userId.equals(authenticatedUser.getId()) && !boardAccessPolicy.canAdminBoard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Only the board owner and admins can manage members");
+        }
+
+        if (!boardMemberService.remove(id, userId)) {
+            return ResponseEntity.status(404).body("User " + userId + " is not a member of this board");
+        }
+        return ResponseEntity.ok("Member removed successfully");
+    }
+
 
 }
\ No newline at end of file
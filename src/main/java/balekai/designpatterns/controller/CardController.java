@@ -1,24 +1,36 @@
 package balekai.designpatterns.controller;
 
+import balekai.designpatterns.event.CardTransitionEvent;
+import balekai.designpatterns.exception.VersionConflictException;
+import balekai.designpatterns.model.BoardMember;
 import balekai.designpatterns.model.Card;
 import balekai.designpatterns.model.TrelloList;
 import balekai.designpatterns.model.User;
-import balekai.designpatterns.model.Board;
 import balekai.designpatterns.repository.CardRepository;
 import balekai.designpatterns.repository.TrelloListRepository;
 import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.response.FieldSelection;
+import balekai.designpatterns.security.BoardAccessPolicy;
+import balekai.designpatterns.service.BoardCounterService;
 import balekai.designpatterns.service.CardService;
+import balekai.designpatterns.service.OutboxService;
+import balekai.designpatterns.service.SparseFieldsetService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/cards")
@@ -30,9 +42,15 @@ public class CardController {
     private final TrelloListRepository trelloListRepository;
     private final UserRepository userRepository;
     private final CardService cardService;
+    private final SparseFieldsetService sparseFieldsetService;
+    private final BoardCounterService boardCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final BoardAccessPolicy boardAccessPolicy;
 
     // 🆕 Create Card only in "To Do" lists
     @PostMapping
+    @Transactional
     public ResponseEntity<?> createCard(@RequestBody Card card, HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
@@ -53,8 +71,7 @@ public class CardController {
                 .orElseThrow(() -> new RuntimeException("List not found with id: " + card.getList().getId()));
 
         // Check if user has access to this board
-        Board board = list.getBoard();
-        if (board != null && board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
+        if (!boardAccessPolicy.canWriteList(authenticatedUser.getId(), list.getId())) {
             return ResponseEntity.status(403).body("Access denied: Cannot create cards in private boards you don't own");
         }
 
@@ -64,18 +81,23 @@ public class CardController {
 
         card.setCreatedAt(LocalDateTime.now());
         card.setCurrentState("To Do");
+        card.setStateEnteredAt(card.getCreatedAt());
         card.setList(list);
         if (card.getStateHistory() == null) card.setStateHistory(new ArrayList<>());
         card.getStateHistory().add("Created in To Do at " + LocalDateTime.now());
 
         Card savedCard = cardRepository.save(card);
+        boardCounterService.cardCreated(savedCard);
+        eventPublisher.publishEvent(CardTransitionEvent.created(savedCard));
+        outboxService.card("card.created", savedCard);
         return ResponseEntity.ok(savedCard);
     }
 
     // 🆕 Get Card by ID
     @GetMapping("/{id}")
     @Transactional(readOnly = true)
-    public ResponseEntity<Card> getCardById(@PathVariable Long id, HttpServletRequest request) {
+    public ResponseEntity<?> getCardById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                         HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -87,17 +109,22 @@ public class CardController {
             return ResponseEntity.status(401).build();
         }
 
-        Card card = cardRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Card not found with id: " + id));
-
-        // Check if user has access to this card's board
-        TrelloList list = card.getList();
-        if (list != null && list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
+        // Sparse fieldset: check access and read only the selected columns, without loading the card entity
+        if (fields != null) {
+            FieldSelection selection = FieldSelection.parse(fields);
+            if (!boardAccessPolicy.canReadCard(authenticatedUser.getId(), id)) {
                 return ResponseEntity.status(403).build();
             }
+            return ResponseEntity.ok(sparseFieldsetService.renderCard(id, selection));
         }
+
+        // Check if user has access to this card's board
+        if (!boardAccessPolicy.canReadCard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        Card card = cardRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Card not found with id: " + id));
         
         // Initialize lazy collections to avoid Hibernate lazy loading issues
         if (card.getAssignedUser() != null) {
@@ -110,13 +137,13 @@ public class CardController {
             card.getStateHistory().size(); // Force initialization
         }
         
-        return ResponseEntity.ok(card);
+        return ResponseEntity.ok().eTag(String.valueOf(card.getVersion())).body(card);
     }
 
     // 🆕 Get All Cards
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<?> getAllCards(HttpServletRequest request) {
+    public ResponseEntity<?> getAllCards(@RequestParam(required = false) String fields, HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -128,19 +155,17 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Sparse fieldset: access filtering happens in the query, only the selected columns are read
+        if (fields != null) {
+            return ResponseEntity.ok(sparseFieldsetService.renderAccessibleCards(authenticatedUser.getId(), FieldSelection.parse(fields)));
+        }
+
         List<Card> cards = cardRepository.findAll();
         
         // Filter cards based on user access (only show cards from public boards or user's own private boards)
         List<Card> accessibleCards = cards.stream()
-            .filter(card -> {
-                TrelloList list = card.getList();
-                if (list != null && list.getBoard() != null) {
-                    Board board = list.getBoard();
-                    // Show cards from public boards or private boards owned by the user
-                    return !board.isAPrivate() || board.getOwnerId().equals(authenticatedUser.getId());
-                }
-                return true; // Show cards without board association
-            })
+            .filter(card -> card.getList() == null
+                    || boardAccessPolicy.canRead(authenticatedUser.getId(), card.getList().getBoard()))
             .toList();
         
         // Initialize lazy collections to avoid Hibernate lazy loading issues
@@ -161,7 +186,9 @@ public class CardController {
 
     // 🆕 Delete Card by ID
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteCard(@PathVariable Long id, HttpServletRequest request) {
+    @Transactional
+    public ResponseEntity<?> deleteCard(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -173,27 +200,35 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if user has access to delete this card
+        if (!boardAccessPolicy.canWriteCard(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot delete cards from private boards you don't own");
+        }
+
         Card card = cardRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Card not found with id: " + id));
-
-        // Check if user has access to delete this card
         TrelloList list = card.getList();
-        if (list != null && list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot delete cards from private boards you don't own");
-            }
-        }
 
+        VersionConflictException.checkIfMatch(ifMatch, card.getVersion(), card);
+
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
+        if (list != null) {
+            list.getCards().remove(card); // otherwise the list's cascade re-persists the card on flush
+        }
         cardRepository.delete(card);
+        boardCounterService.cardDeleted(before);
+        eventPublisher.publishEvent(CardTransitionEvent.deleted(card, LocalDateTime.now()));
+        outboxService.card("card.deleted", card);
         return ResponseEntity.ok("Card deleted successfully!");
     }
 
     // ✅ Transition Card State
     @PutMapping("/{cardId}/transition")
+    @Transactional
     public ResponseEntity<?> transitionCardState(
             @PathVariable Long cardId,
             @RequestParam String newState,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request
     ) {
         // Get authenticated user
@@ -207,27 +242,28 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if user has access to modify this card
+        if (!boardAccessPolicy.canWriteCard(authenticatedUser.getId(), cardId)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot modify cards in private boards you don't own");
+        }
+
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
 
-        // Check if user has access to modify this card
-        TrelloList list = card.getList();
-        if (list != null && list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot modify cards in private boards you don't own");
-            }
-        }
+        VersionConflictException.checkIfMatch(ifMatch, card.getVersion(), card);
 
-        cardService.transitionCardState(cardId, newState);
+        Card transitioned = cardService.transitionCardState(cardId, newState);
+        outboxService.card("card.transitioned", transitioned);
         return ResponseEntity.ok("Card state updated successfully!");
     }
 
     // ✅ Move Card to Another List
     @PutMapping("/{cardId}/move")
+    @Transactional
     public ResponseEntity<?> moveCardToList(
             @PathVariable Long cardId,
             @RequestParam Long listId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request
     ) {
         // Get authenticated user
@@ -241,31 +277,36 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if user has access to modify this card
+        if (!boardAccessPolicy.canWriteCard(authenticatedUser.getId(), cardId)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot move cards in private boards you don't own");
+        }
+
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
 
-        // Check if user has access to modify this card
-        TrelloList currentList = card.getList();
-        if (currentList != null && currentList.getBoard() != null) {
-            Board board = currentList.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot move cards in private boards you don't own");
-            }
-        }
+        VersionConflictException.checkIfMatch(ifMatch, card.getVersion(), card);
 
         TrelloList newList = trelloListRepository.findById(listId)
                 .orElseThrow(() -> new RuntimeException("List not found with id: " + listId));
 
         // Check if the new list is in the same board or user has access to the new list's board
-        if (newList.getBoard() != null) {
-            Board newBoard = newList.getBoard();
-            if (newBoard.isAPrivate() && !newBoard.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot move cards to private boards you don't own");
-            }
+        if (!boardAccessPolicy.canWriteList(authenticatedUser.getId(), listId)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot move cards to private boards you don't own");
         }
 
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
         card.setList(newList);
         cardRepository.save(card);
+        boardCounterService.cardChanged(before, card);
+        Long fromBoardId = before != null ? before.boardId() : null;
+        Long toBoardId = newList.getBoard() != null ? newList.getBoard().getId() : null;
+        if (!Objects.equals(fromBoardId, toBoardId)) {
+            LocalDateTime now = LocalDateTime.now();
+            eventPublisher.publishEvent(CardTransitionEvent.movedOut(card, fromBoardId, now));
+            eventPublisher.publishEvent(CardTransitionEvent.movedIn(card, now));
+        }
+        outboxService.card("card.moved", card);
 
         return ResponseEntity.ok("Card moved successfully!");
     }
@@ -276,6 +317,7 @@ public class CardController {
     public ResponseEntity<String> assignCardToUser(
             @PathVariable Long cardId,
             @RequestParam(required = false) String userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request
     ) {
         // Get authenticated user
@@ -289,25 +331,22 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if the card belongs to a private board
+        BoardAccessPolicy.BoardAccess access = boardAccessPolicy.forCard(cardId);
+        if (!boardAccessPolicy.allows(authenticatedUser.getId(), access, BoardMember.Role.EDITOR)) {
+            // For private boards, only the owner and editors can assign cards
+            return ResponseEntity.status(403).body("Access denied: Only the board owner and editors can assign cards in private boards");
+        }
+        // In private boards, cards can only be assigned to the owner and members
+        if (access.aPrivate() && userId != null && !userId.trim().isEmpty()
+                && !boardAccessPolicy.allows(userId, access, BoardMember.Role.VIEWER)) {
+            return ResponseEntity.status(403).body("Access denied: Cards in private boards can only be assigned to board members");
+        }
+
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
 
-        // Check if the card belongs to a private board
-        TrelloList list = card.getList();
-        if (list != null && list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate()) {
-                // For private boards, only the owner can assign cards, and only to themselves
-                if (!board.getOwnerId().equals(authenticatedUser.getId())) {
-                    return ResponseEntity.status(403).body("Access denied: Only the board owner can assign cards in private boards");
-                }
-                
-                // In private boards, cards can only be assigned to the board owner
-                if (userId != null && !userId.trim().isEmpty() && !userId.equals(authenticatedUser.getId())) {
-                    return ResponseEntity.status(403).body("Access denied: Cards in private boards can only be assigned to the board owner");
-                }
-            }
-        }
+        VersionConflictException.checkIfMatch(ifMatch, card.getVersion(), card);
 
         // Force initialization of lazy collections to prevent Hibernate lazy loading issues
         if (card.getStateHistory() != null) {
@@ -321,6 +360,7 @@ public class CardController {
         }
 
         User previousUser = card.getAssignedUser();
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
 
         if (userId == null || userId.trim().isEmpty()) {
             // Unassign the user
@@ -336,6 +376,8 @@ public class CardController {
             
             card.getStateHistory().add(log);
             cardRepository.save(card);
+            boardCounterService.cardChanged(before, card);
+            outboxService.card("card.assigned", card);
             return ResponseEntity.ok("User unassigned successfully.");
         }
 
@@ -358,6 +400,8 @@ public class CardController {
 
         card.getStateHistory().add(log);
         cardRepository.save(card);
+        boardCounterService.cardChanged(before, card);
+        outboxService.card("card.assigned", card);
 
         return ResponseEntity.ok("User assignment updated.");
     }
@@ -377,18 +421,14 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
-
         // Check if user has access to view this card's history
-        TrelloList list = card.getList();
-        if (list != null && list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot view history of cards in private boards you don't own");
-            }
+        if (!boardAccessPolicy.canReadCard(authenticatedUser.getId(), cardId)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot view history of cards in private boards you don't own");
         }
 
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
+
         // Force initialization of lazy collections to prevent Hibernate lazy loading issues
         if (card.getStateHistory() != null) {
             card.getStateHistory().size(); // Force initialization
@@ -396,10 +436,52 @@ public class CardController {
 
         return ResponseEntity.ok(card.getStateHistory());
     }
+    // ✅ Partial update (JSON Merge Patch): writes only the changed columns, returns only the changed fields
+    @PatchMapping(value = "/{cardId}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Transactional
+    public ResponseEntity<?> patchCard(
+            @PathVariable Long cardId,
+            @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest request
+    ) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+        if (authenticatedUser == null) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        if (!boardAccessPolicy.canWriteCard(authenticatedUser.getId(), cardId)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot modify cards in private boards you don't own");
+        }
+
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
+
+        VersionConflictException.checkIfMatch(ifMatch, card.getVersion(), card);
+
+        Map<String, Object> changed = cardService.patchCard(card, patch);
+        if (!changed.isEmpty()) {
+            outboxService.card("card.updated", card);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", card.getId());
+        body.putAll(changed);
+        body.put("version", card.getVersion());
+        return ResponseEntity.ok().eTag(String.valueOf(card.getVersion())).body(body);
+    }
+
     @PutMapping("/{cardId}/update-metadata")
+    @Transactional
     public ResponseEntity<?> updateCardMetadata(
             @PathVariable Long cardId,
             @RequestBody Map<String, String> updates,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request
     ) {
         // Get authenticated user
@@ -413,17 +495,15 @@ public class CardController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if user has access to modify this card
+        if (!boardAccessPolicy.canWriteCard(authenticatedUser.getId(), cardId)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot modify cards in private boards you don't own");
+        }
+
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
 
-        // Check if user has access to modify this card
-        TrelloList list = card.getList();
-        if (list != null && list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot modify cards in private boards you don't own");
-            }
-        }
+        VersionConflictException.checkIfMatch(ifMatch, card.getVersion(), card);
 
         if (updates.containsKey("title")) {
             card.setTitle(updates.get("title"));
@@ -432,8 +512,10 @@ public class CardController {
             card.setLabel(updates.get("label"));
         }
 
-        cardRepository.save(card);
-        return ResponseEntity.ok(card);
+        // Flush so the response carries the incremented version
+        card = cardRepository.saveAndFlush(card);
+        outboxService.card("card.updated", card);
+        return ResponseEntity.ok().eTag(String.valueOf(card.getVersion())).body(card);
     }
 
 }
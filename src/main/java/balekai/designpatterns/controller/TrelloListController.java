@@ -1,18 +1,24 @@
 package balekai.designpatterns.controller;
 
+import balekai.designpatterns.exception.VersionConflictException;
 import balekai.designpatterns.model.TrelloList;
-import balekai.designpatterns.model.Board;
 import balekai.designpatterns.model.User;
 import balekai.designpatterns.repository.TrelloListRepository;
 import balekai.designpatterns.repository.BoardRepository;
 import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.security.BoardAccessPolicy;
+import balekai.designpatterns.service.BoardCounterService;
+import balekai.designpatterns.service.CardAnalyticsService;
+import balekai.designpatterns.service.OutboxService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,7 +35,20 @@ public class TrelloListController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private CardAnalyticsService cardAnalyticsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BoardAccessPolicy boardAccessPolicy;
+
     @PostMapping("/{boardId}")
+    @Transactional
     public ResponseEntity<?> createList(@PathVariable Long boardId, @RequestBody TrelloList list, HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
@@ -43,19 +62,18 @@ public class TrelloListController {
         }
 
         // Check if user has access to the board
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new RuntimeException("Board not found"));
-        
-        if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
+        if (!boardAccessPolicy.canWriteBoard(authenticatedUser.getId(), boardId)) {
             return ResponseEntity.status(403).body("Access denied: Cannot create lists in private boards you don't own");
         }
 
-        list.setBoard(board);
+        list.setBoard(boardRepository.getReferenceById(boardId));
         TrelloList savedList = trelloListRepository.save(list);
+        outboxService.list("list.created", savedList);
         return ResponseEntity.ok(savedList);
     }
     
     @PostMapping
+    @Transactional
     public ResponseEntity<?> createList(@RequestBody TrelloList list, HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
@@ -69,16 +87,13 @@ public class TrelloListController {
         }
 
         // If list has a board, check access
-        if (list.getBoard() != null && list.getBoard().getId() != null) {
-            Board board = boardRepository.findById(list.getBoard().getId())
-                    .orElseThrow(() -> new RuntimeException("Board not found"));
-            
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot create lists in private boards you don't own");
-            }
+        if (list.getBoard() != null && list.getBoard().getId() != null
+                && !boardAccessPolicy.canWriteBoard(authenticatedUser.getId(), list.getBoard().getId())) {
+            return ResponseEntity.status(403).body("Access denied: Cannot create lists in private boards you don't own");
         }
 
         TrelloList savedList = trelloListRepository.save(list);
+        outboxService.list("list.created", savedList);
         return ResponseEntity.ok(savedList);
     }
 
@@ -100,14 +115,7 @@ public class TrelloListController {
         
         // Filter lists based on user access (only show lists from public boards or user's own private boards)
         List<TrelloList> accessibleLists = lists.stream()
-            .filter(list -> {
-                if (list.getBoard() != null) {
-                    Board board = list.getBoard();
-                    // Show lists from public boards or private boards owned by the user
-                    return !board.isAPrivate() || board.getOwnerId().equals(authenticatedUser.getId());
-                }
-                return true; // Show lists without board association
-            })
+            .filter(list -> boardAccessPolicy.canRead(authenticatedUser.getId(), list.getBoard()))
             .toList();
         
         // Initialize lazy collections to avoid Hibernate lazy loading issues
@@ -146,16 +154,13 @@ public class TrelloListController {
             return ResponseEntity.status(401).body("User not found");
         }
 
-        TrelloList list = trelloListRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("List not found"));
-        
         // Check if user has access to this list's board
-        if (list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot access lists in private boards you don't own");
-            }
+        if (!boardAccessPolicy.canReadList(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot access lists in private boards you don't own");
         }
+
+        TrelloList list = trelloListRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("List not found"));
         
         // Initialize lazy collections to avoid Hibernate lazy loading issues
         if (list.getCards() != null) {
@@ -174,11 +179,13 @@ public class TrelloListController {
             });
         }
         
-        return ResponseEntity.ok(list);
+        return ResponseEntity.ok().eTag(String.valueOf(list.getVersion())).body(list);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateList(@PathVariable Long id, @RequestBody TrelloList list, HttpServletRequest request) {
+    @Transactional
+    public ResponseEntity<?> updateList(@PathVariable Long id, @RequestBody TrelloList list,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -190,24 +197,26 @@ public class TrelloListController {
             return ResponseEntity.status(401).body("User not found");
         }
 
-        TrelloList existingList = trelloListRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("List not found"));
-        
         // Check if user has access to update this list's board
-        if (existingList.getBoard() != null) {
-            Board board = existingList.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot update lists in private boards you don't own");
-            }
+        if (!boardAccessPolicy.canWriteList(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot update lists in private boards you don't own");
         }
+
+        TrelloList existingList = trelloListRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("List not found"));
         
+        VersionConflictException.checkIfMatch(ifMatch, existingList.getVersion(), existingList);
+
         existingList.setName(list.getName());
         TrelloList updatedList = trelloListRepository.save(existingList);
+        outboxService.list("list.updated", updatedList);
         return ResponseEntity.ok(updatedList);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteList(@PathVariable Long id, HttpServletRequest request) {
+    @Transactional
+    public ResponseEntity<?> deleteList(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -219,18 +228,24 @@ public class TrelloListController {
             return ResponseEntity.status(401).body("User not found");
         }
 
+        // Check if user has access to delete this list's board
+        if (!boardAccessPolicy.canWriteList(authenticatedUser.getId(), id)) {
+            return ResponseEntity.status(403).body("Access denied: Cannot delete lists in private boards you don't own");
+        }
+
         TrelloList list = trelloListRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("List not found"));
         
-        // Check if user has access to delete this list's board
+        VersionConflictException.checkIfMatch(ifMatch, list.getVersion(), list);
+
         if (list.getBoard() != null) {
-            Board board = list.getBoard();
-            if (board.isAPrivate() && !board.getOwnerId().equals(authenticatedUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied: Cannot delete lists in private boards you don't own");
-            }
+            cardAnalyticsService.listDeleted(list.getBoard().getId(), id, LocalDateTime.now());
         }
-        
         trelloListRepository.deleteById(id);
+        if (list.getBoard() != null) {
+            boardCounterService.invalidate(list.getBoard().getId()); // its cards went with it
+        }
+        outboxService.list("list.deleted", list);
         return ResponseEntity.ok("List deleted successfully");
     }
 }
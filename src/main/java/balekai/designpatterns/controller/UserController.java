@@ -2,14 +2,20 @@ package balekai.designpatterns.controller;
 
 import balekai.designpatterns.model.User;
 import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.service.UserDirectoryIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -18,7 +24,12 @@ import java.util.Optional;
 @Profile("!test") // Don't load this controller in test profile
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final UserRepository userRepository;
+    private final UserDirectoryIndex userDirectoryIndex;
 
     @GetMapping("/")
     public String root() {
@@ -30,8 +41,11 @@ public class UserController {
         return "OK";
     }
 
+    // Without limit/cursor the full list is returned as before; with either, one page plus nextCursor
     @GetMapping("/users")
-    public ResponseEntity<?> getUsers(HttpServletRequest request) {
+    public ResponseEntity<?> getUsers(@RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) String cursor,
+                                      HttpServletRequest request) {
         // Get authenticated user
         String userEmail = (String) request.getAttribute("authenticatedUserEmail");
         if (userEmail == null) {
@@ -43,8 +57,45 @@ public class UserController {
             return ResponseEntity.status(401).body("User not found");
         }
 
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+        if (limit == null && cursor == null) {
+            List<User> users = userRepository.findAll();
+            return ResponseEntity.ok(users);
+        }
+
+        // Keyset pagination on id: the cursor is the last id of the previous page
+        int pageSize = Math.min(Math.max(limit == null ? DEFAULT_PAGE_SIZE : limit, 1), MAX_PAGE_SIZE);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<User> users = cursor == null
+                ? userRepository.findAllByOrderByIdAsc(page)
+                : userRepository.findByIdGreaterThanOrderByIdAsc(decodeCursor(cursor), page);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        boolean hasMore = users.size() > pageSize;
+        List<User> pageUsers = hasMore ? users.subList(0, pageSize) : users;
+        body.put("users", pageUsers);
+        body.put("nextCursor", hasMore ? encodeCursor(pageUsers.get(pageSize - 1).getId()) : null);
+        return ResponseEntity.ok(body);
+    }
+
+    // ✅ Assignee autocomplete, answered from the in-memory index
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchUsers(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "10") int limit,
+                                         HttpServletRequest request) {
+        String userEmail = (String) request.getAttribute("authenticatedUserEmail");
+        if (userEmail == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!userDirectoryIndex.containsEmail(userEmail)) {
+            // Users written by another instance only reach the index on its next rebuild
+            User authenticatedUser = userRepository.findByEmail(userEmail).orElse(null);
+            if (authenticatedUser == null) {
+                return ResponseEntity.status(401).body("User not found");
+            }
+            userDirectoryIndex.put(authenticatedUser);
+        }
+
+        return ResponseEntity.ok(userDirectoryIndex.search(prefix, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
     @GetMapping("/users/{id}")
@@ -118,6 +169,18 @@ public class UserController {
         }
     }
 
+    private static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
     // Request DTO for user updates
     public static class UserUpdateRequest {
         private String name;
@@ -0,0 +1,57 @@
+package balekai.designpatterns.event;
+
+import balekai.designpatterns.model.Card;
+
+import java.time.LocalDateTime;
+
+/**
+ * A card entering or leaving a state on a board. {@code fromState} is null when the card was
+ * created and {@code toState} is null when it was deleted. {@code fromStateEnteredAt} is when
+ * the card entered {@code fromState}, if known; it is null for cards created before it was tracked.
+ * A card moved to another board leaves the old board ({@code MOVED_OUT}) and enters the new one
+ * ({@code MOVED_IN}) in its current state.
+ *
+ * Published synchronously inside the transaction that changed the card, so listeners that
+ * write (e.g. the analytics rollups) commit or roll back together with the change.
+ */
+public record CardTransitionEvent(
+        Type type,
+        Long cardId,
+        Long boardId,
+        String fromState,
+        String toState,
+        LocalDateTime createdAt,
+        LocalDateTime fromStateEnteredAt,
+        LocalDateTime at) {
+
+    public enum Type { CREATED, TRANSITIONED, DELETED, MOVED_OUT, MOVED_IN }
+
+    public static CardTransitionEvent created(Card card) {
+        return new CardTransitionEvent(Type.CREATED, card.getId(), boardIdOf(card), null, card.getCurrentState(),
+                card.getCreatedAt(), null, card.getStateEnteredAt());
+    }
+
+    public static CardTransitionEvent transitioned(Card card, String fromState, LocalDateTime fromStateEnteredAt) {
+        return new CardTransitionEvent(Type.TRANSITIONED, card.getId(), boardIdOf(card), fromState, card.getCurrentState(),
+                card.getCreatedAt(), fromStateEnteredAt, card.getStateEnteredAt());
+    }
+
+    public static CardTransitionEvent deleted(Card card, LocalDateTime at) {
+        return new CardTransitionEvent(Type.DELETED, card.getId(), boardIdOf(card), card.getCurrentState(), null,
+                card.getCreatedAt(), card.getStateEnteredAt(), at);
+    }
+
+    public static CardTransitionEvent movedOut(Card card, Long fromBoardId, LocalDateTime at) {
+        return new CardTransitionEvent(Type.MOVED_OUT, card.getId(), fromBoardId, card.getCurrentState(), null,
+                card.getCreatedAt(), card.getStateEnteredAt(), at);
+    }
+
+    public static CardTransitionEvent movedIn(Card card, LocalDateTime at) {
+        return new CardTransitionEvent(Type.MOVED_IN, card.getId(), boardIdOf(card), null, card.getCurrentState(),
+                card.getCreatedAt(), null, at);
+    }
+
+    private static Long boardIdOf(Card card) {
+        return card.getList() != null && card.getList().getBoard() != null ? card.getList().getBoard().getId() : null;
+    }
+}
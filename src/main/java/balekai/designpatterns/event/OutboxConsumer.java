@@ -0,0 +1,21 @@
+package balekai.designpatterns.event;
+
+import balekai.designpatterns.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Receives outbox events in id order, one batch at a time. Register by declaring a bean and
+ * setting {@code outbox.enabled}.
+ *
+ * Delivery is at-least-once: a batch is redelivered to every consumer if any of them throws,
+ * or if the node stops before the batch is committed, so consumers must tolerate duplicates
+ * (e.g. by remembering the last event id they applied). An event that keeps failing is parked
+ * in outbox_dead_letter after {@code outbox.max-attempts} tries.
+ */
+public interface OutboxConsumer {
+
+    String name();
+
+    void accept(List<OutboxEvent> events);
+}
@@ -0,0 +1,12 @@
+package balekai.designpatterns.exception;
+
+/**
+ * Thrown when a board, list or card referenced by the request doesn't exist.
+ * Mapped to 404 by {@link GlobalExceptionHandler}.
+ */
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
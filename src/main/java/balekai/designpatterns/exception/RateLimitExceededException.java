@@ -0,0 +1,18 @@
+package balekai.designpatterns.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a caller exceeds a request rate limit.
+ * Mapped to 429 with a Retry-After header by {@link GlobalExceptionHandler}.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public RateLimitExceededException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
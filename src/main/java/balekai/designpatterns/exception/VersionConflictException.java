@@ -0,0 +1,54 @@
+package balekai.designpatterns.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a write was based on a stale version of a board, list or card: either the
+ * If-Match header names an older version, or another request committed first.
+ * Mapped by {@link GlobalExceptionHandler} to {@code status} with the current state and its ETag,
+ * so the client can merge and retry without reloading.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+
+    public static final int CONFLICT = 409;
+    public static final int PRECONDITION_FAILED = 412;
+
+    private final int status;
+    private final Long currentVersion;
+    private final Object current;
+
+    public VersionConflictException(String message, int status, Long currentVersion, Object current) {
+        super(message);
+        this.status = status;
+        this.currentVersion = currentVersion;
+        this.current = current;
+    }
+
+    /**
+     * Rejects the write unless {@code ifMatch} is absent, {@code *}, or lists {@code version}.
+     * Accepts both strong ({@code "3"}) and weak ({@code W/"3"}) entity tags.
+     */
+    public static void checkIfMatch(String ifMatch, Long version, Object current) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*")) {
+                return;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (value.equals(String.valueOf(version))) {
+                return;
+            }
+        }
+        throw new VersionConflictException("Precondition failed: the resource has changed since version " + ifMatch.trim(),
+                PRECONDITION_FAILED, version, current);
+    }
+}
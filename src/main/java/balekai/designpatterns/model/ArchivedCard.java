@@ -0,0 +1,61 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A finished card moved out of the card table by CardArchiveService. Keeps the original card id
+ * and a copy of its list's name, so it can be listed and searched after the list is gone.
+ * Rows are written with INSERT ... SELECT and never updated.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "archived_card", indexes = {
+        @Index(name = "idx_archived_card_board_id", columnList = "board_id, id")
+})
+public class ArchivedCard {
+
+    @Id
+    private Long id;
+
+    @Column(name = "board_id", nullable = false)
+    private Long boardId;
+
+    @Column(name = "list_id")
+    private Long listId;
+
+    @Column(name = "list_name")
+    private String listName;
+
+    private String title;
+    private String description;
+    private String label;
+    private String dueDate;
+    private LocalDateTime createdAt;
+    private String currentState;
+    private LocalDateTime stateEnteredAt;
+
+    @Column(name = "assigned_user_id")
+    private String assignedUserId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @ElementCollection
+    @CollectionTable(name = "archived_card_comments", joinColumns = @JoinColumn(name = "card_id"))
+    @Column(name = "comment")
+    private List<String> comments = new ArrayList<>();
+
+    @ElementCollection
+    @CollectionTable(name = "archived_card_state_history", joinColumns = @JoinColumn(name = "card_id"))
+    @Column(name = "entry")
+    private List<String> stateHistory = new ArrayList<>();
+}
@@ -1,7 +1,10 @@
 package balekai.designpatterns.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.util.List;
@@ -17,9 +20,12 @@ public class Board {
     private Long id;
 
     private String name;
+
+    @Column(name = "owner_id")
     private String ownerId;
 
     @OneToMany(mappedBy = "board", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     @JsonManagedReference
     private List<TrelloList> lists;
     @Column(name = "is_private") // 🔥 Maps to SQL column
@@ -41,4 +47,28 @@ public class Board {
     @Getter
     private String ownerName; // ✅ Add this
 
+    // Denormalized card counters, only written by BoardCounterService through bulk updates
+    // so saving a loaded board can never overwrite a concurrent increment
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "card_count", nullable = false, insertable = false, updatable = false)
+    private int cardCount;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "assigned_count", nullable = false, insertable = false, updatable = false)
+    private int assignedCount;
+
+    // False until the counters have been recomputed once (boards created before counting existed, bulk imports)
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(name = "counters_valid", nullable = false, insertable = false, updatable = false)
+    private boolean countersValid;
+
+    // Optimistic lock: bumped on every write, returned as the ETag and checked against If-Match
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One keyed card counter of a board: the number of cards in a state, or the number of
+ * open (not Done) cards due on a given day. Maintained incrementally by BoardCounterService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "board_counter", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_board_counter_key", columnNames = {"board_id", "kind", "counter_key"})
+})
+public class BoardCounter {
+
+    public enum Kind {
+        STATE, // key: the card's currentState
+        DUE    // key: ISO due date (yyyy-MM-dd) of cards that are not Done
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "board_id", nullable = false)
+    private Long boardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(name = "counter_key", nullable = false)
+    private String key;
+
+    @Column(name = "counter_value", nullable = false)
+    private long value;
+}
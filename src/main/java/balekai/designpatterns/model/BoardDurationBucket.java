@@ -0,0 +1,49 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One bucket of a per-board duration histogram: how many samples fell into the bucket and
+ * their summed duration. Buckets are log-scaled (see CardAnalyticsService), so a histogram
+ * has a few dozen rows however many transitions it has seen.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "board_duration_bucket", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_board_duration_bucket", columnNames = {"board_id", "metric", "state", "bucket"})
+})
+public class BoardDurationBucket {
+
+    public enum Metric {
+        TIME_IN_STATE, // state: the state the card left
+        CYCLE_TIME     // state: empty; creation to Done
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "board_id", nullable = false)
+    private Long boardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 16)
+    private Metric metric;
+
+    @Column(name = "state", nullable = false)
+    private String state;
+
+    @Column(name = "bucket", nullable = false)
+    private int bucket;
+
+    @Column(name = "samples", nullable = false)
+    private long samples;
+
+    @Column(name = "total_seconds", nullable = false)
+    private long totalSeconds;
+}
@@ -0,0 +1,38 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Net change in the number of cards in a state on a board during one day.
+ * Cumulative flow is rebuilt from the current state counts by subtracting later days' changes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "board_flow_delta", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_board_flow_delta", columnNames = {"board_id", "flow_day", "state"})
+})
+public class BoardFlowDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "board_id", nullable = false)
+    private Long boardId;
+
+    @Column(name = "flow_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "state", nullable = false)
+    private String state;
+
+    @Column(name = "delta", nullable = false)
+    private long delta;
+}
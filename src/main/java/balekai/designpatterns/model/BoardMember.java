@@ -0,0 +1,52 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's role on a board they don't own. The owner (Board.ownerId) is implicitly an admin and
+ * never has a row here. The unique (user_id, board_id) key drives "boards I can access" and
+ * per-request access checks; the board_id index serves member listings and board deletion.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "board_member", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_board_member_user_board", columnNames = {"user_id", "board_id"})
+}, indexes = {
+        @Index(name = "idx_board_member_board_id", columnList = "board_id")
+})
+public class BoardMember {
+
+    public enum Role {
+        VIEWER, // read the board
+        EDITOR, // also change lists and cards
+        ADMIN;  // also manage members and delete the board
+
+        public boolean includes(Role other) {
+            return compareTo(other) >= 0;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "board_id", nullable = false)
+    private Long boardId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", nullable = false, length = 16)
+    private Role role;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
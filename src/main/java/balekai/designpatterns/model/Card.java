@@ -1,7 +1,11 @@
 package balekai.designpatterns.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +15,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate // UPDATE only the changed columns
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -44,4 +49,15 @@ public class Card {
 
     @ElementCollection(fetch = FetchType.EAGER)
     private List<String> stateHistory = new ArrayList<>(); // ["Created -> To Do", "To Do -> In Progress"]
+
+    // When the card entered currentState; null for cards created before it was tracked
+    @JsonIgnore
+    private LocalDateTime stateEnteredAt;
+
+    // Optimistic lock: bumped on every write, returned as the ETag and checked against If-Match
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
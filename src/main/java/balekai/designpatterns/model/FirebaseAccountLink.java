@@ -0,0 +1,32 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Records that a Firebase UID signs in to an existing email/password account.
+ * The account keeps its own id, so boards and cards that reference it are left untouched.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "firebase_account_link", indexes = {
+        @Index(name = "idx_firebase_account_link_user_id", columnList = "user_id")
+})
+public class FirebaseAccountLink {
+
+    @Id
+    @Column(name = "firebase_uid")
+    private String firebaseUid;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "linked_at", nullable = false)
+    private Instant linkedAt;
+}
@@ -0,0 +1,51 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The outcome of a mutating request sent with an Idempotency-Key, shared by all instances.
+ * A row with status 0 is a claim held by the request that is still executing.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    // SHA-256 of the caller and the key
+    @Id
+    private String id;
+
+    // SHA-256 of method, path, query and the start of the body, to reject a key reused for a different request
+    @Column(name = "request_hash", nullable = false)
+    private String requestHash;
+
+    // SHA-256 of the whole body, set once the request completes
+    @Column(name = "body_hash", length = 64)
+    private String bodyHash;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    private String etag;
+
+    @Column(length = 1048576)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,45 @@
+package balekai.designpatterns.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A change to a board, list or card, written in the same transaction as the change itself
+ * and deleted once OutboxDispatcher has handed it to every consumer (or parked it in
+ * outbox_dead_letter after too many failed attempts).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 16)
+    private String aggregateType; // "board", "list" or "card"
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String type; // e.g. "card.moved"
+
+    // JSON snapshot of the aggregate after the change (only ids for deletes)
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Failed deliveries so far
+    @Column(nullable = false)
+    private int attempts;
+}
@@ -1,8 +1,12 @@
 package balekai.designpatterns.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +28,21 @@ public class TrelloList {
     @JsonBackReference
     private Board board;
 
+    // Adding or removing cards doesn't change the list itself
     @OneToMany(mappedBy = "list", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OptimisticLock(excluded = true)
     private List<Card> cards = new ArrayList<>();
+
+    // Maintained by BoardCounterService; see Board#cardCount
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "card_count", nullable = false, insertable = false, updatable = false)
+    private int cardCount;
+
+    // Optimistic lock: bumped on every write, returned as the ETag and checked against If-Match
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
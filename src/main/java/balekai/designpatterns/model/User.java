@@ -3,6 +3,7 @@ package balekai.designpatterns.model;
 import jakarta.persistence.*;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import balekai.designpatterns.service.UserDirectoryListener;
 
 @Data
 @NoArgsConstructor
@@ -10,6 +11,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Builder
 @Entity
 @Table(name = "\"user\"") // Escape reserved keyword for PostgreSQL
+@EntityListeners(UserDirectoryListener.class) // Keeps the autocomplete index current
 public class User {
 
     @Id
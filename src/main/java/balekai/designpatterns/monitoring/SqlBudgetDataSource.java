@@ -0,0 +1,116 @@
+package balekai.designpatterns.monitoring;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every statement prepared on the application's connections against the current
+ * request's {@link SqlRequestStats}, with its execution time. Sits at the JDBC level so
+ * Hibernate and JdbcTemplate (board export and import) are both covered.
+ */
+public class SqlBudgetDataSource extends DelegatingDataSource {
+
+    public SqlBudgetDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(SqlBudgetDataSource.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, new ConnectionHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static void recordStatement(String sql) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "prepareStatement":
+                case "prepareCall":
+                    recordStatement((String) args[0]);
+                    break;
+                default:
+            }
+            Object result = SqlBudgetDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(SqlBudgetDataSource.class.getClassLoader(), new Class<?>[] {type},
+                        new StatementHandler(statement, method.getName().equals("createStatement")));
+            }
+            return result;
+        }
+    }
+
+    // Times execute*; plain Statements are counted per SQL string they run, prepared ones when prepared
+    private record StatementHandler(Statement target, boolean plain) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+            }
+            if (plain && (name.startsWith("execute") || name.equals("addBatch")) && args != null && args[0] instanceof String sql) {
+                recordStatement(sql);
+            }
+            if (!name.startsWith("execute")) {
+                return SqlBudgetDataSource.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return SqlBudgetDataSource.invoke(target, method, args);
+            } finally {
+                SqlRequestStats stats = SqlRequestStats.current();
+                if (stats != null) {
+                    stats.recordExecution(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
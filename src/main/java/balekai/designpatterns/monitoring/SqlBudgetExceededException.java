@@ -0,0 +1,12 @@
+package balekai.designpatterns.monitoring;
+
+/**
+ * Thrown in fail-fast mode when a request issues more SQL statements than its budget,
+ * so N+1 regressions break integration tests instead of reaching production.
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,95 @@
+package balekai.designpatterns.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link SqlRequestStats} scope per request, ahead of the authentication and idempotency
+ * filters so their statements count too, and when the request completes (after its async part,
+ * e.g. a streamed export) records the statement count and SQL time per endpoint and warns when
+ * the endpoint's statement budget was exceeded.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Named and budgeted for its endpoint by SqlBudgetInterceptor once the handler is known
+        SqlRequestStats stats = SqlRequestStats.begin(request.getMethod() + " UNKNOWN",
+                properties.getDefaultMaxStatements(), properties.isFailFast());
+        request.setAttribute(SqlRequestStats.ATTRIBUTE, stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlRequestStats.end();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        report(request, stats);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                report(request, stats);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlRequestStats stats) {
+        String method = request.getMethod();
+        String uri = uriPattern(request);
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements issued per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Total JDBC execution time per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getExecutionNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.isOverBudget()) {
+            meterRegistry.counter("http.server.requests.sql.budget.exceeded", "method", method, "uri", uri).increment();
+            log.warn("SQL budget exceeded for {}: {} statements (budget {}), {} ms in JDBC; most repeated: {}",
+                    stats.getEndpoint(), stats.getStatementCount(), stats.getBudget(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getExecutionNanos()), stats.mostRepeated(3));
+        }
+    }
+
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,47 @@
+package balekai.designpatterns.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Checks the request's {@link SqlRequestStats} (opened by {@link SqlBudgetFilter}) against the
+ * budget of the endpoint that handles it, and carries the stats over to the async thread that
+ * runs a {@code Callable} or {@code StreamingResponseBody}, so its statements are counted too.
+ */
+@RequiredArgsConstructor
+public class SqlBudgetInterceptor implements HandlerInterceptor, CallableProcessingInterceptor {
+
+    private final SqlBudgetProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            stats.forEndpoint(request.getMethod() + " " + uri, properties.budgetFor(uri));
+        }
+        return true;
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object stats = request.getAttribute(SqlRequestStats.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (stats instanceof SqlRequestStats requestStats) {
+            SqlRequestStats.bind(requestStats);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        SqlRequestStats.end();
+    }
+}
@@ -0,0 +1,29 @@
+package balekai.designpatterns.monitoring;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-request SQL statement budgets, e.g.
+ * {@code sql.budget.endpoints.[/boards/{id}]=10}. Keys are the controller URI patterns.
+ */
+@Data
+@ConfigurationProperties(prefix = "sql.budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+
+    // Throw SqlBudgetExceededException as soon as a request goes over budget (integration tests)
+    private boolean failFast = false;
+
+    private int defaultMaxStatements = 25;
+
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetFor(String uriPattern) {
+        return endpoints.getOrDefault(uriPattern, defaultMaxStatements);
+    }
+}
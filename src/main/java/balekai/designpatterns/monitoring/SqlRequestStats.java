@@ -0,0 +1,112 @@
+package balekai.designpatterns.monitoring;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL statements issued while handling one HTTP request. Bound to the request thread by
+ * {@link SqlBudgetFilter} and to its async thread, if any, by {@link SqlBudgetInterceptor};
+ * statements run outside a request are not counted.
+ */
+public class SqlRequestStats {
+
+    // Request attribute holding the stats, for the async part of the request
+    public static final String ATTRIBUTE = SqlRequestStats.class.getName();
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    // Distinct statement texts tracked per request, to find the repeated ones (N+1)
+    private static final int MAX_DISTINCT_STATEMENTS = 200;
+
+    private final boolean failFast;
+    private String endpoint;
+    private int budget;
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+    private int statementCount;
+    private long executionNanos;
+
+    private SqlRequestStats(String endpoint, int budget, boolean failFast) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.failFast = failFast;
+    }
+
+    public static SqlRequestStats begin(String endpoint, int budget, boolean failFast) {
+        SqlRequestStats stats = new SqlRequestStats(endpoint, budget, failFast);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void bind(SqlRequestStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // Once the handler is known; statements issued by filters before it count against the endpoint's budget
+    synchronized void forEndpoint(String endpoint, int budget) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        if (failFast && statementCount > budget) {
+            throw new SqlBudgetExceededException(endpoint + " exceeded its budget of " + budget
+                    + " SQL statements before reaching the controller; most repeated: " + mostRepeated(1));
+        }
+    }
+
+    // Both the request thread and its async thread record here, one after the other
+    synchronized void recordStatement(String sql) {
+        statementCount++;
+        if (countsBySql.size() < MAX_DISTINCT_STATEMENTS || countsBySql.containsKey(sql)) {
+            countsBySql.merge(sql, 1, Integer::sum);
+        }
+        if (failFast && statementCount > budget) {
+            throw new SqlBudgetExceededException(endpoint + " exceeded its budget of " + budget
+                    + " SQL statements; most repeated: " + mostRepeated(1));
+        }
+    }
+
+    synchronized void recordExecution(long nanos) {
+        executionNanos += nanos;
+    }
+
+    public synchronized String getEndpoint() {
+        return endpoint;
+    }
+
+    public synchronized int getBudget() {
+        return budget;
+    }
+
+    public synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    public synchronized long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    public synchronized boolean isOverBudget() {
+        return statementCount > budget;
+    }
+
+    /**
+     * The statements executed most often in this request, most frequent first.
+     * A single statement text repeated many times is the signature of an N+1 pattern.
+     */
+    public synchronized List<String> mostRepeated(int limit) {
+        return countsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .toList();
+    }
+}
@@ -0,0 +1,86 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import balekai.designpatterns.model.ArchivedCard;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedCardRepository extends JpaRepository<ArchivedCard, Long> {
+
+    // Skips cards another instance archived concurrently
+    @Modifying
+    @Query(value = "INSERT INTO archived_card (id, board_id, list_id, list_name, title, description, label, due_date, "
+            + "created_at, current_state, state_entered_at, assigned_user_id, archived_at) "
+            + "SELECT c.id, l.board_id, l.id, l.name, c.title, c.description, c.label, c.due_date, "
+            + "c.created_at, c.current_state, c.state_entered_at, c.assigned_user_id, :archivedAt "
+            + "FROM card c JOIN trello_list l ON l.id = c.list_id "
+            + "WHERE c.id IN (:ids) AND NOT EXISTS (SELECT 1 FROM archived_card a WHERE a.id = c.id)", nativeQuery = true)
+    int copyCards(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // The element tables have no order column: copy and read them in physical (ctid) order,
+    // the order the card's collections were loaded in, so comments and history keep their order
+    @Modifying
+    @Query(value = "INSERT INTO archived_card_comments (card_id, comment) "
+            + "SELECT card_id, comments FROM card_comments WHERE card_id IN (:ids) ORDER BY card_id, ctid", nativeQuery = true)
+    int copyComments(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_card_state_history (card_id, entry) "
+            + "SELECT card_id, state_history FROM card_state_history WHERE card_id IN (:ids) ORDER BY card_id, ctid", nativeQuery = true)
+    int copyStateHistory(@Param("ids") List<Long> ids);
+
+    // [boardId, currentState, count] of the given archived cards
+    @Query("SELECT a.boardId, a.currentState, COUNT(a) FROM ArchivedCard a WHERE a.id IN :ids GROUP BY a.boardId, a.currentState")
+    List<Object[]> countByIdsGroupedByBoardAndState(@Param("ids") List<Long> ids);
+
+    // Keyset pages, newest archived id first; pass Long.MAX_VALUE for the first page
+    @Query("SELECT a FROM ArchivedCard a WHERE a.boardId = :boardId AND a.id < :before ORDER BY a.id DESC")
+    List<ArchivedCard> findPage(@Param("boardId") Long boardId, @Param("before") Long before, Pageable page);
+
+    // pattern is lower-case with LIKE wildcards escaped by '\'
+    @Query("SELECT a FROM ArchivedCard a WHERE a.boardId = :boardId AND a.id < :before "
+            + "AND (LOWER(a.title) LIKE :pattern ESCAPE '\\' OR LOWER(a.description) LIKE :pattern ESCAPE '\\') ORDER BY a.id DESC")
+    List<ArchivedCard> searchPage(@Param("boardId") Long boardId, @Param("before") Long before,
+                                  @Param("pattern") String pattern, Pageable page);
+
+    @Query(value = "SELECT card_id, comment FROM archived_card_comments WHERE card_id IN (:ids) ORDER BY card_id, ctid",
+            nativeQuery = true)
+    List<Object[]> findComments(@Param("ids") List<Long> ids);
+
+    @Query(value = "SELECT card_id, entry FROM archived_card_state_history WHERE card_id IN (:ids) ORDER BY card_id, ctid",
+            nativeQuery = true)
+    List<Object[]> findStateHistory(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM archived_card_comments WHERE card_id IN (SELECT id FROM archived_card WHERE board_id = :boardId)",
+            nativeQuery = true)
+    int deleteCommentsByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query(value = "DELETE FROM archived_card_state_history WHERE card_id IN (SELECT id FROM archived_card WHERE board_id = :boardId)",
+            nativeQuery = true)
+    int deleteStateHistoryByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedCard a WHERE a.boardId = :boardId")
+    int deleteByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query(value = "DELETE FROM archived_card_comments WHERE card_id IN (SELECT a.id FROM archived_card a "
+            + "JOIN board b ON b.id = a.board_id WHERE b.owner_id IN (:ownerIds))", nativeQuery = true)
+    int deleteCommentsByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM archived_card_state_history WHERE card_id IN (SELECT a.id FROM archived_card a "
+            + "JOIN board b ON b.id = a.board_id WHERE b.owner_id IN (:ownerIds))", nativeQuery = true)
+    int deleteStateHistoryByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedCard a WHERE a.boardId IN (SELECT b.id FROM Board b WHERE b.ownerId IN :ownerIds)")
+    int deleteByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+}
@@ -0,0 +1,62 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import balekai.designpatterns.model.BoardDurationBucket;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rollup tables behind GET /boards/{id}/analytics: duration histogram buckets and daily flow deltas.
+ */
+public interface BoardAnalyticsRepository extends JpaRepository<BoardDurationBucket, Long> {
+
+    // Returns 0 if the bucket row doesn't exist yet
+    @Modifying
+    @Query(value = "UPDATE board_duration_bucket SET samples = samples + 1, total_seconds = total_seconds + :seconds "
+            + "WHERE board_id = :boardId AND metric = :metric AND state = :state AND bucket = :bucket", nativeQuery = true)
+    int addSample(@Param("boardId") Long boardId, @Param("metric") String metric, @Param("state") String state,
+                  @Param("bucket") int bucket, @Param("seconds") long seconds);
+
+    // Returns 0 if the row was created concurrently
+    @Modifying
+    @Query(value = "INSERT INTO board_duration_bucket (board_id, metric, state, bucket, samples, total_seconds) "
+            + "VALUES (:boardId, :metric, :state, :bucket, 1, :seconds) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertSample(@Param("boardId") Long boardId, @Param("metric") String metric, @Param("state") String state,
+                     @Param("bucket") int bucket, @Param("seconds") long seconds);
+
+    @Modifying
+    @Query(value = "UPDATE board_flow_delta SET delta = delta + :delta WHERE board_id = :boardId AND flow_day = :day AND state = :state",
+            nativeQuery = true)
+    int addFlow(@Param("boardId") Long boardId, @Param("day") LocalDate day, @Param("state") String state, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO board_flow_delta (board_id, flow_day, state, delta) VALUES (:boardId, :day, :state, :delta) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertFlow(@Param("boardId") Long boardId, @Param("day") LocalDate day, @Param("state") String state, @Param("delta") long delta);
+
+    @Query("SELECT b FROM BoardDurationBucket b WHERE b.boardId = :boardId ORDER BY b.metric, b.state, b.bucket")
+    List<BoardDurationBucket> findBuckets(@Param("boardId") Long boardId);
+
+    @Query("SELECT f.day, f.state, f.delta FROM BoardFlowDelta f WHERE f.boardId = :boardId AND f.day > :after AND f.delta <> 0")
+    List<Object[]> findFlowAfter(@Param("boardId") Long boardId, @Param("after") LocalDate after);
+
+    @Modifying
+    @Query("DELETE FROM BoardDurationBucket b WHERE b.boardId = :boardId")
+    int deleteBucketsByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM BoardFlowDelta f WHERE f.boardId = :boardId")
+    int deleteFlowByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM BoardDurationBucket b WHERE b.boardId IN (SELECT o.id FROM Board o WHERE o.ownerId IN :ownerIds)")
+    int deleteBucketsByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query("DELETE FROM BoardFlowDelta f WHERE f.boardId IN (SELECT o.id FROM Board o WHERE o.ownerId IN :ownerIds)")
+    int deleteFlowByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+}
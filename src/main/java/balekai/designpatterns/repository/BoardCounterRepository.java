@@ -0,0 +1,39 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import balekai.designpatterns.model.BoardCounter;
+
+import java.util.List;
+
+public interface BoardCounterRepository extends JpaRepository<BoardCounter, Long> {
+
+    // Returns 0 if the counter row doesn't exist yet
+    @Modifying
+    @Query(value = "UPDATE board_counter SET counter_value = counter_value + :delta "
+            + "WHERE board_id = :boardId AND kind = :kind AND counter_key = :key", nativeQuery = true)
+    int adjust(@Param("boardId") Long boardId, @Param("kind") String kind, @Param("key") String key, @Param("delta") long delta);
+
+    // Returns 0 if the row was created concurrently
+    @Modifying
+    @Query(value = "INSERT INTO board_counter (board_id, kind, counter_key, counter_value) "
+            + "VALUES (:boardId, :kind, :key, :value) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("boardId") Long boardId, @Param("kind") String kind, @Param("key") String key, @Param("value") long value);
+
+    @Query("SELECT c.key, c.value FROM BoardCounter c WHERE c.boardId = :boardId AND c.kind = :kind AND c.value <> 0 ORDER BY c.key")
+    List<Object[]> findNonZero(@Param("boardId") Long boardId, @Param("kind") BoardCounter.Kind kind);
+
+    // Sum of the counters keyed below {@code key}; ISO dates compare correctly as strings
+    @Query("SELECT COALESCE(SUM(c.value), 0) FROM BoardCounter c WHERE c.boardId = :boardId AND c.kind = :kind AND c.key < :key")
+    long sumBefore(@Param("boardId") Long boardId, @Param("kind") BoardCounter.Kind kind, @Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM BoardCounter c WHERE c.boardId = :boardId")
+    int deleteByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM BoardCounter c WHERE c.boardId IN (SELECT b.id FROM Board b WHERE b.ownerId IN :ownerIds)")
+    int deleteByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+}
@@ -0,0 +1,38 @@
+package balekai.designpatterns.repository;
+
+import balekai.designpatterns.model.BoardMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BoardMemberRepository extends JpaRepository<BoardMember, Long> {
+
+    // Unique (user_id, board_id) lookup used by every access check on a shared board
+    @Query("SELECT m.role FROM BoardMember m WHERE m.userId = :userId AND m.boardId = :boardId")
+    Optional<BoardMember.Role> findRole(@Param("userId") String userId, @Param("boardId") Long boardId);
+
+    Optional<BoardMember> findByBoardIdAndUserId(Long boardId, String userId);
+
+    // [userId, name, email, role, createdAt]
+    @Query("SELECT m.userId, u.name, u.email, m.role, m.createdAt FROM BoardMember m, User u "
+            + "WHERE u.id = m.userId AND m.boardId = :boardId ORDER BY m.createdAt, m.id")
+    List<Object[]> findMembers(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM BoardMember m WHERE m.boardId = :boardId AND m.userId = :userId")
+    int deleteMember(@Param("boardId") Long boardId, @Param("userId") String userId);
+
+    @Modifying
+    @Query("DELETE FROM BoardMember m WHERE m.boardId = :boardId")
+    int deleteByBoardId(@Param("boardId") Long boardId);
+
+    // Memberships of the users themselves and memberships on the boards they own
+    @Modifying
+    @Query("DELETE FROM BoardMember m WHERE m.userId IN :userIds "
+            + "OR m.boardId IN (SELECT b.id FROM Board b WHERE b.ownerId IN :userIds)")
+    int deleteByUserIdsOrBoardOwnerIds(@Param("userIds") List<String> userIds);
+}
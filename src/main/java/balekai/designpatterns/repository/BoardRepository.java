@@ -7,11 +7,46 @@ import org.springframework.data.repository.query.Param;
 import balekai.designpatterns.model.Board;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BoardRepository extends JpaRepository<Board, Long> {
+
+    // [isPrivate, ownerId]; empty if the board doesn't exist
+    @Query("SELECT b.aPrivate, b.ownerId FROM Board b WHERE b.id = :boardId")
+    List<Object[]> findAccessById(@Param("boardId") Long boardId);
     List<Board> findByOwnerId(String ownerId);
-    
+
+    // Owned boards plus shared ones, each branch an index range scan (board.owner_id, board_member.user_id)
+    @Query(value = "SELECT b.* FROM board b WHERE b.owner_id = :userId "
+            + "UNION SELECT b.* FROM board_member m JOIN board b ON b.id = m.board_id WHERE m.user_id = :userId "
+            + "ORDER BY id", nativeQuery = true)
+    List<Board> findAccessibleByUserId(@Param("userId") String userId);
+
     @Modifying
-    @Query("UPDATE Board b SET b.ownerId = :newOwnerId WHERE b.ownerId = :oldOwnerId")
-    void updateOwnerId(@Param("oldOwnerId") String oldOwnerId, @Param("newOwnerId") String newOwnerId);
+    @Query("DELETE FROM Board b WHERE b.ownerId IN :ownerIds")
+    int deleteByOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    // Row lock shared by counter updates and recounts, so a recount never interleaves with an increment
+    @Query(value = "SELECT id FROM board WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockForCounters(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Board b SET b.cardCount = b.cardCount + :cards, b.assignedCount = b.assignedCount + :assigned WHERE b.id = :id")
+    int adjustCounters(@Param("id") Long id, @Param("cards") int cards, @Param("assigned") int assigned);
+
+    @Modifying
+    @Query("UPDATE Board b SET b.cardCount = :cards, b.assignedCount = :assigned, b.countersValid = true WHERE b.id = :id")
+    int setCounters(@Param("id") Long id, @Param("cards") int cards, @Param("assigned") int assigned);
+
+    @Modifying
+    @Query("UPDATE Board b SET b.countersValid = false WHERE b.id = :id")
+    int invalidateCounters(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Board b SET b.countersValid = false WHERE b.id IN "
+            + "(SELECT l.board.id FROM Card c JOIN c.list l WHERE c.assignedUser.id IN :userIds)")
+    int invalidateCountersByAssignees(@Param("userIds") List<String> userIds);
+
+    @Query("SELECT b.cardCount, b.assignedCount, b.countersValid FROM Board b WHERE b.id = :id")
+    List<Object[]> findCounters(@Param("id") Long id);
 }
@@ -1,18 +1,75 @@
 package balekai.designpatterns.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import balekai.designpatterns.model.Card;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CardRepository extends JpaRepository<Card, Long> {
     List<Card> findByListId(Long listId);
-    
+
+    // [boardId, isPrivate, ownerId] of the card's board, without loading the card; empty if the card doesn't exist
+    @Query("SELECT b.id, b.aPrivate, b.ownerId FROM Card c LEFT JOIN c.list l LEFT JOIN l.board b WHERE c.id = :cardId")
+    List<Object[]> findBoardAccessByCardId(@Param("cardId") Long cardId);
+
+    // Bulk deletes skip the element collections' cascade, so comments and history go first
     @Modifying
-    @Query("UPDATE Card c SET c.assignedUser.id = :newUserId WHERE c.assignedUser.id = :oldUserId")
-    void updateAssignedUserId(@Param("oldUserId") String oldUserId, @Param("newUserId") String newUserId);
-}
+    @Query(value = "DELETE FROM card_comments WHERE card_id IN (SELECT c.id FROM card c JOIN trello_list l ON l.id = c.list_id "
+            + "JOIN board b ON b.id = l.board_id WHERE b.owner_id IN (:ownerIds))", nativeQuery = true)
+    int deleteCommentsByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM card_state_history WHERE card_id IN (SELECT c.id FROM card c JOIN trello_list l ON l.id = c.list_id "
+            + "JOIN board b ON b.id = l.board_id WHERE b.owner_id IN (:ownerIds))", nativeQuery = true)
+    int deleteStateHistoryByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query("DELETE FROM Card c WHERE c.list.id IN (SELECT l.id FROM TrelloList l WHERE l.board.ownerId IN :ownerIds)")
+    int deleteByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.assignedUser = null WHERE c.assignedUser.id IN :userIds")
+    int unassignUsers(@Param("userIds") List<String> userIds);
+
+    // [currentState, count] of a list's cards
+    @Query("SELECT c.currentState, COUNT(c) FROM Card c WHERE c.list.id = :listId GROUP BY c.currentState")
+    List<Object[]> countByListIdGroupedByState(@Param("listId") Long listId);
 
+    // Card totals of a board grouped by the columns its counters are keyed on; one row per distinct pair
+    @Query("SELECT c.currentState, c.dueDate, COUNT(c), COUNT(c.assignedUser) FROM Card c JOIN c.list l "
+            + "WHERE l.board.id = :boardId GROUP BY c.currentState, c.dueDate")
+    List<Object[]> countByBoardIdGroupedByStateAndDueDate(@Param("boardId") Long boardId);
+
+    // Cards that have sat in a Done list, in the Done state, since before the cutoff. Cards from before
+    // stateEnteredAt was tracked are skipped: how long they have been done is unknown. Keyset paged by id
+    @Query("SELECT c.id FROM Card c JOIN c.list l WHERE l.board IS NOT NULL AND UPPER(l.name) = 'DONE' AND UPPER(c.currentState) = 'DONE' "
+            + "AND c.stateEnteredAt < :cutoff AND c.id > :after ORDER BY c.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("after") Long after, Pageable page);
+
+    // Locks those of the given cards that are still archivable, so a card moved out of Done after
+    // findArchivableIds is left alone and can't be moved between the archive copy and the delete
+    @Query(value = "SELECT c.id FROM card c WHERE c.id IN (:ids) AND UPPER(c.current_state) = 'DONE' AND c.state_entered_at < :cutoff "
+            + "AND c.list_id IN (SELECT l.id FROM trello_list l WHERE l.board_id IS NOT NULL AND UPPER(l.name) = 'DONE') "
+            + "ORDER BY c.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockArchivable(@Param("ids") List<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT DISTINCT l.board.id FROM Card c JOIN c.list l WHERE c.id IN :ids AND l.board IS NOT NULL")
+    List<Long> findBoardIdsByCardIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM card_comments WHERE card_id IN (:ids)", nativeQuery = true)
+    int deleteCommentsByCardIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM card_state_history WHERE card_id IN (:ids)", nativeQuery = true)
+    int deleteStateHistoryByCardIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Card c WHERE c.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
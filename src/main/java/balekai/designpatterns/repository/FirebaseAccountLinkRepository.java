@@ -0,0 +1,29 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import balekai.designpatterns.model.FirebaseAccountLink;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface FirebaseAccountLinkRepository extends JpaRepository<FirebaseAccountLink, String> {
+
+    // Returns 0 if the UID was already linked, e.g. by a concurrent first login
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO firebase_account_link (firebase_uid, user_id, linked_at) VALUES (:firebaseUid, :userId, :linkedAt) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("firebaseUid") String firebaseUid, @Param("userId") String userId, @Param("linkedAt") Instant linkedAt);
+
+    @Query("SELECT l.userId FROM FirebaseAccountLink l WHERE l.firebaseUid = :firebaseUid")
+    Optional<String> findUserIdByFirebaseUid(@Param("firebaseUid") String firebaseUid);
+
+    @Modifying
+    @Query("DELETE FROM FirebaseAccountLink l WHERE l.userId IN :userIds")
+    int deleteByUserIds(@Param("userIds") List<String> userIds);
+}
@@ -0,0 +1,47 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import balekai.designpatterns.model.IdempotencyRecord;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Returns 0 if another request already holds or completed the key
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_record (id, request_hash, status, created_at, expires_at) "
+            + "VALUES (:id, :requestHash, 0, :now, :expiresAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("id") String id, @Param("requestHash") String requestHash,
+              @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    // Takes over an expired record, or a claim abandoned by a request that never completed
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = 0, r.bodyHash = NULL, r.contentType = NULL, "
+            + "r.etag = NULL, r.body = NULL, r.createdAt = :now, r.expiresAt = :expiresAt "
+            + "WHERE r.id = :id AND (r.expiresAt < :now OR (r.status = 0 AND r.createdAt < :staleBefore))")
+    int takeOver(@Param("id") String id, @Param("requestHash") String requestHash, @Param("now") Instant now,
+                 @Param("expiresAt") Instant expiresAt, @Param("staleBefore") Instant staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.bodyHash = :bodyHash, r.status = :status, r.contentType = :contentType, "
+            + "r.etag = :etag, r.body = :body WHERE r.id = :id AND r.status = 0")
+    int complete(@Param("id") String id, @Param("bodyHash") String bodyHash, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("etag") String etag, @Param("body") byte[] body);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = 0")
+    int release(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,20 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import balekai.designpatterns.model.OutboxDeadLetter;
+
+import java.time.Instant;
+
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+
+    // Copies the event as it is; the caller deletes it from outbox_event in the same transaction
+    @Modifying
+    @Query(value = "INSERT INTO outbox_dead_letter (id, aggregate_type, aggregate_id, event_type, payload, created_at, "
+            + "attempts, last_error, parked_at) "
+            + "SELECT e.id, e.aggregate_type, e.aggregate_id, e.event_type, e.payload, e.created_at, e.attempts, :lastError, :parkedAt "
+            + "FROM outbox_event e WHERE e.id = :id", nativeQuery = true)
+    int park(@Param("id") Long id, @Param("lastError") String lastError, @Param("parkedAt") Instant parkedAt);
+}
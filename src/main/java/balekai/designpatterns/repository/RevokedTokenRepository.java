@@ -0,0 +1,31 @@
+package balekai.designpatterns.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import balekai.designpatterns.model.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Returns 0 if the session was already revoked
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_token (id, expires_at, revoked_at) VALUES (:id, :expiresAt, :revokedAt) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+
+    @Query("SELECT t.id FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<String> findActiveIds(@Param("now") Instant now);
+
+    List<RevokedToken> findByRevokedAtAfter(Instant since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
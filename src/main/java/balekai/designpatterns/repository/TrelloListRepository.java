@@ -1,7 +1,35 @@
 package balekai.designpatterns.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import balekai.designpatterns.model.TrelloList;
 
+import java.util.List;
+
 public interface TrelloListRepository extends JpaRepository<TrelloList, Long> {
+
+    // [boardId, isPrivate, ownerId] of the list's board, without loading the list; empty if the list doesn't exist
+    @Query("SELECT b.id, b.aPrivate, b.ownerId FROM TrelloList l LEFT JOIN l.board b WHERE l.id = :listId")
+    List<Object[]> findBoardAccessByListId(@Param("listId") Long listId);
+
+    @Modifying
+    @Query("DELETE FROM TrelloList l WHERE l.board.id IN (SELECT b.id FROM Board b WHERE b.ownerId IN :ownerIds)")
+    int deleteByBoardOwnerIds(@Param("ownerIds") List<String> ownerIds);
+
+    @Modifying
+    @Query("UPDATE TrelloList l SET l.cardCount = l.cardCount + :delta WHERE l.id = :id")
+    int adjustCardCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE TrelloList l SET l.cardCount = :cards WHERE l.id = :id")
+    int setCardCount(@Param("id") Long id, @Param("cards") int cards);
+
+    @Query("SELECT l.id, l.name, l.cardCount FROM TrelloList l WHERE l.board.id = :boardId ORDER BY l.id")
+    List<Object[]> findCardCountsByBoardId(@Param("boardId") Long boardId);
+
+    // Counted from the card table, for recomputing the counters above
+    @Query("SELECT l.id, COUNT(c) FROM TrelloList l LEFT JOIN l.cards c WHERE l.board.id = :boardId GROUP BY l.id")
+    List<Object[]> countCardsByBoardId(@Param("boardId") Long boardId);
 }
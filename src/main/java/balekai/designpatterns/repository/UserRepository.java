@@ -1,21 +1,45 @@
 package balekai.designpatterns.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import balekai.designpatterns.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
-    
+
+    // Keyset pagination for the user directory
+    List<User> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
+
+    // [id, name, email] of every user, for the in-memory autocomplete index
+    @Query("SELECT u.id, u.name, u.email FROM User u")
+    List<Object[]> findDirectoryEntries();
+
+    // Accounts created by test scripts and the debug registration endpoint. Only markers a real
+    // account can't have: registration assigns "user_<millis>_..." ids and takes any name or email
+    @Query("SELECT u.id FROM User u WHERE u.id LIKE 'test-user-%' OR u.id LIKE 'debug\\_user\\_%' ESCAPE '\\' "
+            + "OR u.email LIKE '%@test.com' ORDER BY u.id")
+    List<String> findTestUserIds(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteByIds(@Param("ids") List<String> ids);
+
+    // Compare-and-set so a rehash never overwrites a password changed in the meantime
+    @Transactional
     @Modifying
-    @Query(value = "UPDATE \"user\" SET id = :newId WHERE id = :oldId", nativeQuery = true)
-    void updateUserId(@Param("oldId") String oldId, @Param("newId") String newId);
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePassword(@Param("id") String id, @Param("oldPassword") String oldPassword, @Param("newPassword") String newPassword);
 }
 
 
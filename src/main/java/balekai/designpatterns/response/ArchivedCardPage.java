@@ -0,0 +1,16 @@
+package balekai.designpatterns.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of GET /boards/{id}/archive, newest archived card first.
+ * {@code nextCursor} is null on the last page.
+ */
+public record ArchivedCardPage(List<Entry> cards, String nextCursor) {
+
+    public record Entry(Long id, Long listId, String listName, String title, String description, String label,
+                        String dueDate, LocalDateTime createdAt, String currentState, LocalDateTime stateEnteredAt,
+                        String assignedUserId, LocalDateTime archivedAt, List<String> comments,
+                        List<String> stateHistory) { }
+}
@@ -0,0 +1,28 @@
+package balekai.designpatterns.response;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flow analytics of a board, read from rollups maintained as cards transition.
+ * Durations are in seconds; percentiles are estimated from log-scaled histogram buckets
+ * and are accurate to within about 20%.
+ */
+public record BoardAnalytics(
+        Long boardId,
+        List<DurationSummary> timeInState,
+        DurationSummary cycleTime,
+        List<FlowDay> cumulativeFlow) {
+
+    /**
+     * @param state the state the samples were spent in; null for cycle time
+     */
+    public record DurationSummary(String state, long samples, long meanSeconds,
+                                  long p50Seconds, long p85Seconds, long p95Seconds) { }
+
+    /**
+     * Number of cards in each state at the end of {@code day}.
+     */
+    public record FlowDay(LocalDate day, Map<String, Long> counts) { }
+}
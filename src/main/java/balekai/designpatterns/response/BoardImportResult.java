@@ -0,0 +1,6 @@
+package balekai.designpatterns.response;
+
+/**
+ * Outcome of POST /boards/import: the new board and how much was copied into it.
+ */
+public record BoardImportResult(Long boardId, int lists, long cards, long comments, long historyEntries) { }
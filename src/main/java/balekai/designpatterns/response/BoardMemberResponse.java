@@ -0,0 +1,9 @@
+package balekai.designpatterns.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of GET /boards/{id}/members. The owner is listed first with role "owner"
+ * and no {@code since}; everyone else has their membership role in lower case.
+ */
+public record BoardMemberResponse(String userId, String name, String email, String role, LocalDateTime since) { }
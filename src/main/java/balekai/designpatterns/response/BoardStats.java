@@ -0,0 +1,20 @@
+package balekai.designpatterns.response;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Card counts of a board, read from the denormalized counters without loading any card.
+ * {@code overdue} counts cards that are not Done and whose due date is before today.
+ */
+public record BoardStats(
+        Long boardId,
+        long cardCount,
+        long assigned,
+        long unassigned,
+        long overdue,
+        Map<String, Long> byState,
+        List<ListCount> lists) {
+
+    public record ListCount(Long id, String name, long cardCount) { }
+}
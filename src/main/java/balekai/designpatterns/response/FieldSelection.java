@@ -0,0 +1,113 @@
+package balekai.designpatterns.response;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed form of a {@code fields=} query parameter.
+ *
+ * Supports plain names, dotted paths and parenthesised groups, which can be mixed freely:
+ * {@code name,lists(id,name),cards(id,title,label,assignee.name)}.
+ * {@code assignee.name} and {@code assignee(name)} produce the same selection.
+ */
+public final class FieldSelection {
+
+    private static final FieldSelection EMPTY = new FieldSelection();
+
+    private final Map<String, FieldSelection> children = new LinkedHashMap<>();
+
+    private FieldSelection() {
+    }
+
+    public static FieldSelection parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        Parser parser = new Parser(expression.replace(" ", ""));
+        FieldSelection selection = new FieldSelection();
+        parser.parseList(selection);
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.peek() + "' in fields at position " + parser.pos);
+        }
+        return selection;
+    }
+
+    public boolean isEmpty() {
+        return children.isEmpty();
+    }
+
+    public boolean has(String name) {
+        return children.containsKey(name);
+    }
+
+    /**
+     * Returns the sub-selection for {@code name}, or an empty selection if the name
+     * was given without sub-fields or not at all.
+     */
+    public FieldSelection get(String name) {
+        FieldSelection child = children.get(name);
+        return child == null ? EMPTY : child;
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(children.keySet());
+    }
+
+    private FieldSelection child(String name) {
+        return children.computeIfAbsent(name, key -> new FieldSelection());
+    }
+
+    private static final class Parser {
+        private final String input;
+        private int pos;
+
+        Parser(String input) {
+            this.input = input;
+        }
+
+        void parseList(FieldSelection target) {
+            parsePath(target);
+            while (!atEnd() && peek() == ',') {
+                pos++;
+                parsePath(target);
+            }
+        }
+
+        private void parsePath(FieldSelection target) {
+            FieldSelection node = target.child(parseName());
+            while (!atEnd() && peek() == '.') {
+                pos++;
+                node = node.child(parseName());
+            }
+            if (!atEnd() && peek() == '(') {
+                pos++;
+                parseList(node);
+                if (atEnd() || peek() != ')') {
+                    throw new IllegalArgumentException("Missing ')' in fields at position " + pos);
+                }
+                pos++;
+            }
+        }
+
+        private String parseName() {
+            int start = pos;
+            while (!atEnd() && (Character.isLetterOrDigit(peek()) || peek() == '_')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Expected a field name in fields at position " + pos);
+            }
+            return input.substring(start, pos);
+        }
+
+        boolean atEnd() {
+            return pos >= input.length();
+        }
+
+        char peek() {
+            return input.charAt(pos);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package balekai.designpatterns.response;
+
+import java.time.Instant;
+
+/**
+ * Progress of the background test-user cleanup, as returned by the status endpoint.
+ */
+public record UserCleanupStatus(
+        String jobId,
+        State state,
+        Instant startedAt,
+        Instant finishedAt,
+        int batches,
+        long usersDeleted,
+        long boardsDeleted,
+        long listsDeleted,
+        long cardsDeleted,
+        long cardsUnassigned,
+        String error) {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    public static UserCleanupStatus idle() {
+        return new UserCleanupStatus(null, State.IDLE, null, null, 0, 0, 0, 0, 0, 0, null);
+    }
+}
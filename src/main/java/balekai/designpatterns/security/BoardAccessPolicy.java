@@ -0,0 +1,214 @@
+package balekai.designpatterns.security;
+
+import balekai.designpatterns.exception.NotFoundException;
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.BoardMember.Role;
+import balekai.designpatterns.repository.BoardMemberRepository;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.CardRepository;
+import balekai.designpatterns.repository.TrelloListRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides whether a user may read, write or administer a board, or a list or card on it.
+ *
+ * Decisions come from a projection of the board's privacy and owner, so callers don't have to
+ * load the board (and with it its lists and cards) just to check access. Board projections are
+ * cached for {@code boards.access.cache-ttl-ms}; {@link #invalidate} drops an entry once the
+ * transaction that changed the board's privacy or owner commits, and other instances pick the
+ * change up within the TTL. A list or card lookup is a single indexed query that also refreshes
+ * its board's entry.
+ *
+ * The owner can do everything. Anyone else needs a {@link Role} on a private board, looked up by
+ * the unique (user_id, board_id) key of board_member and cached the same way. Public boards can be
+ * read and written by everyone, but only administered by the owner and admins.
+ */
+@Component
+@Profile("!test")
+public class BoardAccessPolicy {
+
+    /**
+     * Privacy and owner of a board. Lists and cards that aren't on a board are open to everyone.
+     */
+    public record BoardAccess(Long boardId, boolean aPrivate, String ownerId) {
+
+        static final BoardAccess NO_BOARD = new BoardAccess(null, false, null);
+
+        public boolean isOwner(String userId) {
+            return userId != null && userId.equals(ownerId);
+        }
+    }
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TrelloListRepository trelloListRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private BoardMemberRepository boardMemberRepository;
+
+    @Value("${boards.access.cache-ttl-ms:5000}")
+    private long cacheTtlMillis;
+
+    @Value("${boards.access.cache-entries:10000}")
+    private int cacheEntries;
+
+    private ExpiringCache<Long, BoardAccess> boards;
+
+    // "boardId:userId" -> role, empty for users without a membership
+    private ExpiringCache<String, Optional<Role>> roles;
+
+    @PostConstruct
+    public void init() {
+        boards = new ExpiringCache<>(cacheEntries);
+        roles = new ExpiringCache<>(cacheEntries);
+    }
+
+    public boolean canReadBoard(String userId, Long boardId) {
+        return allows(userId, forBoard(boardId), Role.VIEWER);
+    }
+
+    public boolean canWriteBoard(String userId, Long boardId) {
+        return allows(userId, forBoard(boardId), Role.EDITOR);
+    }
+
+    public boolean canAdminBoard(String userId, Long boardId) {
+        return allows(userId, forBoard(boardId), Role.ADMIN);
+    }
+
+    public boolean canReadList(String userId, Long listId) {
+        return allows(userId, forList(listId), Role.VIEWER);
+    }
+
+    public boolean canWriteList(String userId, Long listId) {
+        return allows(userId, forList(listId), Role.EDITOR);
+    }
+
+    public boolean canReadCard(String userId, Long cardId) {
+        return allows(userId, forCard(cardId), Role.VIEWER);
+    }
+
+    public boolean canWriteCard(String userId, Long cardId) {
+        return allows(userId, forCard(cardId), Role.EDITOR);
+    }
+
+    // For boards that are already loaded, e.g. when filtering a list of them
+    public boolean canRead(String userId, Board board) {
+        return board == null
+                || allows(userId, new BoardAccess(board.getId(), board.isAPrivate(), board.getOwnerId()), Role.VIEWER);
+    }
+
+    public boolean allows(String userId, BoardAccess access, Role required) {
+        if (access.boardId() == null || access.isOwner(userId)) {
+            return true;
+        }
+        if (!access.aPrivate() && required != Role.ADMIN) {
+            return true;
+        }
+        if (userId == null) {
+            return false;
+        }
+        Role role = roleOf(userId, access.boardId());
+        return role != null && role.includes(required);
+    }
+
+    /**
+     * @return the user's membership role on the board, or null; the owner has no membership
+     */
+    public Role roleOf(String userId, Long boardId) {
+        String key = boardId + ":" + userId;
+        Optional<Role> cached = roles.get(key);
+        if (cached == null) {
+            cached = boardMemberRepository.findRole(userId, boardId);
+            roles.put(key, cached, System.currentTimeMillis() + cacheTtlMillis);
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * @throws NotFoundException if the board doesn't exist
+     */
+    public BoardAccess forBoard(Long boardId) {
+        BoardAccess cached = boards.get(boardId);
+        if (cached != null) {
+            return cached;
+        }
+        List<Object[]> rows = boardRepository.findAccessById(boardId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Board not found");
+        }
+        return remember(new BoardAccess(boardId, Boolean.TRUE.equals(rows.get(0)[0]), (String) rows.get(0)[1]));
+    }
+
+    /**
+     * @throws NotFoundException if the list doesn't exist
+     */
+    public BoardAccess forList(Long listId) {
+        List<Object[]> rows = trelloListRepository.findBoardAccessByListId(listId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("List not found");
+        }
+        return fromRow(rows.get(0));
+    }
+
+    /**
+     * @throws NotFoundException if the card doesn't exist
+     */
+    public BoardAccess forCard(Long cardId) {
+        List<Object[]> rows = cardRepository.findBoardAccessByCardId(cardId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Card not found with id: " + cardId);
+        }
+        return fromRow(rows.get(0));
+    }
+
+    /**
+     * Forgets the board's cached access once the current transaction commits (immediately without one),
+     * so a concurrent check can't re-cache the old privacy or owner in between.
+     */
+    public void invalidate(Long boardId) {
+        afterCommit(() -> boards.invalidate(boardId));
+    }
+
+    public void invalidateMember(Long boardId, String userId) {
+        afterCommit(() -> roles.invalidate(boardId + ":" + userId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private BoardAccess fromRow(Object[] row) {
+        if (row[0] == null) {
+            return BoardAccess.NO_BOARD;
+        }
+        return remember(new BoardAccess((Long) row[0], Boolean.TRUE.equals(row[1]), (String) row[2]));
+    }
+
+    private BoardAccess remember(BoardAccess access) {
+        boards.put(access.boardId(), access, System.currentTimeMillis() + cacheTtlMillis);
+        return access;
+    }
+}
@@ -0,0 +1,30 @@
+package balekai.designpatterns.security;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Verifies ID tokens with the Firebase Admin SDK (signature against Google's rotating
+ * public keys, issuer, audience and expiry).
+ */
+@Component
+@ConditionalOnProperty(name = "firebase.verifier", havingValue = "admin", matchIfMissing = true)
+public class FirebaseAdminTokenVerifier implements FirebaseTokenVerifier {
+
+    @Override
+    public FirebaseIdentity verify(String idToken) {
+        FirebaseToken token;
+        try {
+            token = FirebaseAuth.getInstance().verifyIdToken(idToken);
+        } catch (FirebaseAuthException e) {
+            throw new RuntimeException("Invalid Firebase ID token: " + e.getMessage(), e);
+        }
+        long expiresAt = ((Number) token.getClaims().get("exp")).longValue();
+        return new FirebaseIdentity(token.getUid(), token.getEmail(), token.getName(), Instant.ofEpochSecond(expiresAt));
+    }
+}
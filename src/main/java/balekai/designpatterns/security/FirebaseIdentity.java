@@ -0,0 +1,9 @@
+package balekai.designpatterns.security;
+
+import java.time.Instant;
+
+/**
+ * The claims the app uses from a verified Firebase ID token.
+ */
+public record FirebaseIdentity(String uid, String email, String name, Instant expiresAt) {
+}
@@ -0,0 +1,14 @@
+package balekai.designpatterns.security;
+
+/**
+ * Verifies Firebase ID tokens. {@link FirebaseAdminTokenVerifier} checks them against Google's
+ * keys; {@link LocalFirebaseTokenVerifier} signs and checks them with a local RSA key so the
+ * Firebase login path can run offline (tests, benchmarks, load tests).
+ */
+public interface FirebaseTokenVerifier {
+
+    /**
+     * @throws RuntimeException if the token is malformed, expired or not signed by the expected key
+     */
+    FirebaseIdentity verify(String idToken);
+}
@@ -0,0 +1,275 @@
+package balekai.designpatterns.security;
+
+import balekai.designpatterns.service.IdempotencyService;
+import balekai.designpatterns.service.IdempotencyService.Decision;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Makes POST, PUT, PATCH and DELETE requests that carry an {@code Idempotency-Key} header safe to retry.
+ * Runs after {@link JwtAuthenticationFilter}, so keys are scoped to the authenticated user.
+ *
+ * The first request with a key runs normally and its response is stored by {@link IdempotencyService};
+ * a retry with the same key and request gets that response back with {@code Idempotent-Replayed: true}
+ * and the write isn't run again. A retry while the first is still running gets 409, and reusing a key
+ * for a different request gets 422. Failures worth retrying (5xx, 429) and version conflicts (409, 412),
+ * which a retry after a refetch should get past, aren't stored.
+ *
+ * Keys are claimed on method, path, query and the first {@link #FINGERPRINT_BYTES} bytes of the body;
+ * only that prefix is buffered, so large streamed uploads stay streamed. The whole body is hashed as it
+ * is read and stored with the response, and a retry whose body differs past the prefix gets 422.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int FINGERPRINT_BYTES = 64 * 1024;
+
+    private final IdempotencyService idempotencyService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean mutating = method.equals("POST") || method.equals("PUT") || method.equals("PATCH") || method.equals("DELETE");
+        return !mutating || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String caller = (String) request.getAttribute("authenticatedUserEmail");
+        if (caller == null) {
+            // Public endpoints (login, register) aren't covered
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        PrefixBufferedRequest bufferedRequest = new PrefixBufferedRequest(request);
+        String requestHash = fingerprint(request, bufferedRequest.prefix());
+        Decision decision = idempotencyService.begin(caller, key, requestHash);
+        switch (decision.outcome()) {
+            case REPLAY -> {
+                String storedBodyHash = decision.response().bodyHash();
+                if (storedBodyHash != null && !storedBodyHash.equals(bufferedRequest.bodyHash())) {
+                    writeError(response, 422, "This Idempotency-Key was already used for a different request");
+                    return;
+                }
+                replay(response, decision.response());
+                return;
+            }
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, HttpServletResponse.SC_CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            }
+            case MISMATCH -> {
+                writeError(response, 422, "This Idempotency-Key was already used for a different request");
+                return;
+            }
+            case EXECUTE -> { }
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(bufferedRequest, cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (isStorable(status)) {
+                // Reads whatever the handler left of the body, so the hash covers all of it
+                String bodyHash = bufferedRequest.bodyHash();
+                idempotencyService.complete(caller, key, requestHash, bodyHash, status, cachingResponse.getContentType(),
+                        cachingResponse.getHeader(HttpHeaders.ETAG), cachingResponse.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.release(caller, key);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isStorable(int status) {
+        return status < 500 && status != 429 && status != HttpServletResponse.SC_CONFLICT
+                && status != HttpServletResponse.SC_PRECONDITION_FAILED;
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyService.StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.etag());
+        }
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] bodyPrefix) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bodyPrefix.length + 256);
+        String head = request.getMethod() + "\n" + request.getRequestURI() + "?"
+                + (request.getQueryString() != null ? request.getQueryString() : "") + "\n";
+        out.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(bodyPrefix);
+        return IdempotencyService.sha256(out.toByteArray());
+    }
+
+    /**
+     * Reads the first bytes of the body up front and replays them ahead of the rest of the stream,
+     * hashing the whole body as it goes.
+     */
+    private static class PrefixBufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] prefix;
+        private final ServletInputStream original;
+        private final MessageDigest digest = IdempotencyService.sha256Digest();
+        private final ServletInputStream body;
+        private int position;
+        private String bodyHash;
+
+        PrefixBufferedRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.original = request.getInputStream();
+            this.prefix = original.readNBytes(FINGERPRINT_BYTES);
+            digest.update(prefix);
+            this.body = new PrefixInputStream();
+        }
+
+        byte[] prefix() {
+            return prefix;
+        }
+
+        // Hash of the whole body; reads and discards whatever hasn't been read yet
+        String bodyHash() throws IOException {
+            if (bodyHash == null) {
+                position = prefix.length;
+                body.transferTo(OutputStream.nullOutputStream());
+                bodyHash = HexFormat.of().formatHex(digest.digest());
+            }
+            return bodyHash;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(body, charset));
+        }
+
+        // The buffered prefix, then the container's stream, which answers the non-blocking calls once the prefix is used up
+        private class PrefixInputStream extends ServletInputStream {
+
+            @Override
+            public int read() throws IOException {
+                if (position < prefix.length) {
+                    return prefix[position++] & 0xff;
+                }
+                int b = original.read();
+                if (b >= 0) {
+                    digest.update((byte) b);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (position < prefix.length) {
+                    int count = Math.min(length, prefix.length - position);
+                    System.arraycopy(prefix, position, buffer, offset, count);
+                    position += count;
+                    return count;
+                }
+                int count = original.read(buffer, offset, length);
+                if (count > 0) {
+                    digest.update(buffer, offset, count);
+                }
+                return count;
+            }
+
+            @Override
+            public boolean isFinished() {
+                return position >= prefix.length && original.isFinished();
+            }
+
+            @Override
+            public boolean isReady() {
+                return position < prefix.length || original.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                original.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        listener.onDataAvailable();
+                    }
+
+                    @Override
+                    public void onAllDataRead() throws IOException {
+                        // The container only knows about its own stream, which may have been drained into the prefix
+                        if (position < prefix.length) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        listener.onError(throwable);
+                    }
+                });
+            }
+        }
+    }
+}
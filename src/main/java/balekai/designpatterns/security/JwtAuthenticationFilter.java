@@ -1,6 +1,8 @@
 package balekai.designpatterns.security;
 
 import balekai.designpatterns.service.JwtService;
+import balekai.designpatterns.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,6 +22,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -29,9 +32,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Permissive CORS headers (temporary until CloudFront origins stabilized)
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,PATCH,OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Authorization,Content-Type,Accept,Origin,X-Requested-With");
-        response.setHeader("Access-Control-Expose-Headers", "Authorization,Content-Type");
-        response.setHeader("Vary", "Origin, Access-Control-Request-Method, Access-Control-Request-Headers");
+        response.setHeader("Access-Control-Allow-Headers", "Authorization,Content-Type,Accept,Origin,X-Requested-With,If-Match,Idempotency-Key");
+        response.setHeader("Access-Control-Expose-Headers", "Authorization,Content-Type,ETag,Idempotent-Replayed");
+        response.setHeader("Vary", "Origin, Accept, Access-Control-Request-Method, Access-Control-Request-Headers");
 
         // Allow preflight requests to pass through immediately
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
@@ -56,7 +59,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String token = authHeader.substring(7);
-            String email = jwtService.extractUsername(token);
+            Claims claims = jwtService.parseClaims(token);
+            String email = claims.getSubject();
+            String sessionId = claims.get("sid", String.class);
+
+            // Answered from the in-memory revocation filter in the common case
+            if (sessionId != null && tokenRevocationService.isRevoked(sessionId)) {
+                log.warn("JWT Authentication failed: Session revoked for path: {}", requestPath);
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.getWriter().write("{\"error\":\"Unauthorized: Session has been revoked\"}");
+                return;
+            }
             
             if (email != null && !email.isEmpty()) {
                 // Store the authenticated user email in request attributes for controllers to use
@@ -76,9 +89,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private boolean isPublicEndpoint(String path) {
-        return path.startsWith("/auth/") || 
+        return (path.startsWith("/auth/") && !path.startsWith("/auth/cleanup-test-users")) || 
                path.equals("/") || 
                path.equals("/health") ||
+               path.equals("/actuator/health") ||
                path.startsWith("/h2-console/");
     }
 }
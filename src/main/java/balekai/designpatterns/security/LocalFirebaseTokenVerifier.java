@@ -0,0 +1,67 @@
+package balekai.designpatterns.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Offline stand-in for Firebase: RS256 tokens with Firebase's issuer/audience/claim layout,
+ * signed by an RSA key pair generated at startup. Enabled with {@code firebase.verifier=local};
+ * never use it in production, since anyone with access to the bean can mint tokens.
+ */
+@Component
+@ConditionalOnProperty(name = "firebase.verifier", havingValue = "local")
+@Slf4j
+public class LocalFirebaseTokenVerifier implements FirebaseTokenVerifier {
+
+    private final KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+    private final String issuer;
+    private final String projectId;
+
+    public LocalFirebaseTokenVerifier(@Value("${firebase.local.project-id:balekai-local}") String projectId) {
+        this.projectId = projectId;
+        this.issuer = "https://securetoken.google.com/" + projectId;
+        log.warn("Using the local Firebase token verifier; Firebase ID tokens are NOT checked against Google");
+    }
+
+    /**
+     * Mints an ID token the way Firebase would for a signed-in user.
+     */
+    public String issueToken(String uid, String email, String name, Duration ttl) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setIssuer(issuer)
+                .setAudience(projectId)
+                .setSubject(uid)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(ttl)))
+                .claim("user_id", uid)
+                .claim("email", email)
+                .claim("name", name)
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    @Override
+    public FirebaseIdentity verify(String idToken) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(keyPair.getPublic())
+                .requireIssuer(issuer)
+                .requireAudience(projectId)
+                .build()
+                .parseClaimsJws(idToken)
+                .getBody();
+        return new FirebaseIdentity(claims.getSubject(), claims.get("email", String.class),
+                claims.get("name", String.class), claims.getExpiration().toInstant());
+    }
+}
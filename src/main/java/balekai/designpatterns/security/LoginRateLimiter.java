@@ -0,0 +1,101 @@
+package balekai.designpatterns.security;
+
+import balekai.designpatterns.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles credential endpoints per account (email) and per client IP, before any
+ * password hashing or database work is done for the attempt.
+ */
+@Component
+@Slf4j
+@Profile("!test")
+public class LoginRateLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.login-throttle.email.capacity:5}")
+    private int emailCapacity;
+
+    @Value("${security.login-throttle.email.refill-ms:12000}")
+    private long emailRefillMillis;
+
+    @Value("${security.login-throttle.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${security.login-throttle.ip.refill-ms:3000}")
+    private long ipRefillMillis;
+
+    @Value("${security.login-throttle.max-keys:100000}")
+    private int maxKeys;
+
+    // Proxies in front of the app that append to X-Forwarded-For (ALB = 1, CloudFront + ALB = 2)
+    @Value("${security.login-throttle.trusted-proxies:1}")
+    private int trustedProxies;
+
+    private TokenBucketLimiter emailLimiter;
+    private TokenBucketLimiter ipLimiter;
+
+    @PostConstruct
+    public void init() {
+        emailLimiter = new TokenBucketLimiter(emailCapacity, emailRefillMillis, maxKeys);
+        ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefillMillis, maxKeys);
+        meterRegistry.gauge("login.throttle.keys", Tags.of("key", "email"), emailLimiter, TokenBucketLimiter::size);
+        meterRegistry.gauge("login.throttle.keys", Tags.of("key", "ip"), ipLimiter, TokenBucketLimiter::size);
+    }
+
+    /**
+     * Takes one attempt from the caller's IP bucket and the account's bucket.
+     *
+     * @throws RateLimitExceededException if either bucket is empty
+     */
+    public void checkAttempt(String email, HttpServletRequest request) {
+        String ip = clientIp(request);
+        long ipWait = ipLimiter.tryAcquire(ip);
+        if (ipWait > 0) {
+            meterRegistry.counter("login.throttle.rejected", "key", "ip").increment();
+            log.warn("Login throttled for IP {}", ip);
+            throw new RateLimitExceededException("Too many attempts, please retry later", toRetryAfter(ipWait));
+        }
+
+        String account = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        long emailWait = emailLimiter.tryAcquire(account);
+        if (emailWait > 0) {
+            meterRegistry.counter("login.throttle.rejected", "key", "email").increment();
+            log.warn("Login throttled for account {}", account);
+            throw new RateLimitExceededException("Too many attempts, please retry later", toRetryAfter(emailWait));
+        }
+    }
+
+    /**
+     * Each trusted proxy appends the address it received the request from to X-Forwarded-For,
+     * so the client is the entry {@code trustedProxies} from the end: behind CloudFront and the
+     * ALB the last entry is the CloudFront edge and the one before it the viewer. Anything
+     * further left was sent by the client and can be spoofed. A request that skipped the outer
+     * proxies has fewer entries, and the first one is then what the innermost proxy saw.
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (trustedProxies > 0 && forwarded != null && !forwarded.isBlank()) {
+            String[] hops = forwarded.split(",");
+            return hops[Math.max(0, hops.length - trustedProxies)].trim();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static int toRetryAfter(long waitNanos) {
+        return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
@@ -0,0 +1,103 @@
+package balekai.designpatterns.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token-bucket rate limiter with bounded memory.
+ *
+ * Each bucket is a single {@link AtomicLong} holding its "theoretical arrival time"
+ * (the GCRA formulation of a token bucket), so acquiring a token is one CAS with no locks.
+ * Keys are spread over independent stripes, each capped at {@code maxKeys / stripes} entries.
+ * A bucket whose arrival time is in the past is full again and carries no state, so only
+ * such idle keys are evicted when a stripe reaches its cap. A throttled bucket is never
+ * dropped, since that would hand its key a fresh burst; while every key in the stripe is
+ * still refilling, new keys are rejected until the first of them is full again.
+ */
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeysPerStripe;
+    private final Map<String, AtomicLong>[] stripes;
+
+    /**
+     * @param capacity           burst size (tokens available to an idle key)
+     * @param refillPeriodMillis time to regain one token
+     * @param maxKeys            upper bound on tracked keys across all stripes
+     */
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(int capacity, long refillPeriodMillis, int maxKeys) {
+        if (capacity < 1 || refillPeriodMillis < 1 || maxKeys < STRIPES) {
+            throw new IllegalArgumentException("Invalid token bucket configuration");
+        }
+        this.emissionIntervalNanos = refillPeriodMillis * 1_000_000L;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.maxKeysPerStripe = maxKeys / STRIPES;
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the token was granted, otherwise the number of nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        Map<String, AtomicLong> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        long now = System.nanoTime();
+
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                long wait = evict(stripe, now);
+                if (wait > 0) {
+                    return wait;
+                }
+            }
+            bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            long wait = next - now - emissionIntervalNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Drops the full buckets of {@code stripe}.
+     *
+     * @return 0 if that made room, otherwise the number of nanoseconds until a bucket is full again
+     */
+    private long evict(Map<String, AtomicLong> stripe, long now) {
+        stripe.values().removeIf(bucket -> bucket.get() <= now);
+        if (stripe.size() < maxKeysPerStripe) {
+            return 0;
+        }
+        long earliest = Long.MAX_VALUE;
+        for (AtomicLong bucket : stripe.values()) {
+            earliest = Math.min(earliest, bucket.get());
+        }
+        return earliest == Long.MAX_VALUE ? 0 : Math.max(earliest - now, 1);
+    }
+}
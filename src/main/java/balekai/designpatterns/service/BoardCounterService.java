@@ -0,0 +1,234 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.BoardCounter;
+import balekai.designpatterns.model.Card;
+import balekai.designpatterns.model.TrelloList;
+import balekai.designpatterns.repository.BoardCounterRepository;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.CardRepository;
+import balekai.designpatterns.repository.TrelloListRepository;
+import balekai.designpatterns.response.BoardStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the denormalized card counters of boards and lists in step with card writes.
+ *
+ * Callers take a {@link Footprint} of the card before changing it and hand it back with the
+ * changed card; the difference is applied as relative SQL updates in the caller's transaction,
+ * so concurrent writers never overwrite each other's increments. Every update goes through the
+ * board row first, which also serializes it with {@link #stats}'s recount of a board whose
+ * counters were invalidated (legacy boards, list deletes, bulk user cleanup).
+ *
+ * Overdue depends on the clock rather than on writes, so open cards are counted per due date
+ * and the stats endpoint sums the dates before today; that's one row per distinct date, not per card.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class BoardCounterService {
+
+    static final String NO_STATE = "";
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TrelloListRepository listRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private BoardCounterRepository counterRepository;
+
+    /**
+     * What a card contributes to the counters: its list and board, state, assignment and due date.
+     */
+    public record Footprint(Long listId, Long boardId, String state, boolean assigned, String dueKey) {
+
+        public static Footprint of(Card card) {
+            TrelloList list = card.getList();
+            if (list == null) {
+                return null;
+            }
+            Long boardId = list.getBoard() != null ? list.getBoard().getId() : null;
+            String state = card.getCurrentState() != null ? card.getCurrentState() : NO_STATE;
+            String dueKey = isDone(state) ? null : normalizeDueDate(card.getDueDate());
+            return new Footprint(list.getId(), boardId, state, card.getAssignedUser() != null, dueKey);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardCreated(Card card) {
+        apply(null, Footprint.of(card));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardChanged(Footprint before, Card card) {
+        apply(before, Footprint.of(card));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardDeleted(Footprint before) {
+        apply(before, null);
+    }
+
+    /**
+     * For writes that change many cards at once: the board is recounted on its next stats read.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invalidate(Long boardId) {
+        boardRepository.invalidateCounters(boardId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void boardDeleted(Long boardId) {
+        counterRepository.deleteByBoardId(boardId);
+    }
+
+    /**
+     * Reads the counters of a board, recounting them first if they were invalidated.
+     * Returns null if the board doesn't exist.
+     */
+    @Transactional
+    public BoardStats stats(Long boardId) {
+        List<Object[]> rows = boardRepository.findCounters(boardId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] board = rows.get(0);
+        long cards = ((Number) board[0]).longValue();
+        long assigned = ((Number) board[1]).longValue();
+        if (!(Boolean) board[2]) {
+            int[] recounted = recount(boardId);
+            cards = recounted[0];
+            assigned = recounted[1];
+        }
+
+        Map<String, Long> byState = new LinkedHashMap<>();
+        for (Object[] row : counterRepository.findNonZero(boardId, BoardCounter.Kind.STATE)) {
+            byState.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        long overdue = counterRepository.sumBefore(boardId, BoardCounter.Kind.DUE, LocalDate.now().toString());
+
+        List<BoardStats.ListCount> lists = new ArrayList<>();
+        for (Object[] row : listRepository.findCardCountsByBoardId(boardId)) {
+            lists.add(new BoardStats.ListCount((Long) row[0], (String) row[1], ((Number) row[2]).longValue()));
+        }
+        return new BoardStats(boardId, cards, assigned, cards - assigned, overdue, byState, lists);
+    }
+
+    private void apply(Footprint before, Footprint after) {
+        Map<Long, Integer> listDeltas = new TreeMap<>();
+        Map<Long, int[]> boardDeltas = new TreeMap<>(); // boardId -> {cards, assigned}
+        Map<CounterKey, Long> counterDeltas = new HashMap<>();
+        collect(before, -1, listDeltas, boardDeltas, counterDeltas);
+        collect(after, 1, listDeltas, boardDeltas, counterDeltas);
+
+        // Boards first and in id order: their row locks order concurrent writers, including cross-board moves
+        boardDeltas.forEach((boardId, delta) -> boardRepository.adjustCounters(boardId, delta[0], delta[1]));
+        listDeltas.forEach((listId, delta) -> {
+            if (delta != 0) {
+                listRepository.adjustCardCount(listId, delta);
+            }
+        });
+        counterDeltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                adjust(key, delta);
+            }
+        });
+    }
+
+    private static void collect(Footprint footprint, int sign, Map<Long, Integer> listDeltas,
+                                Map<Long, int[]> boardDeltas, Map<CounterKey, Long> counterDeltas) {
+        if (footprint == null) {
+            return;
+        }
+        listDeltas.merge(footprint.listId(), sign, Integer::sum);
+        if (footprint.boardId() == null) {
+            return;
+        }
+        int[] board = boardDeltas.computeIfAbsent(footprint.boardId(), id -> new int[2]);
+        board[0] += sign;
+        if (footprint.assigned()) {
+            board[1] += sign;
+        }
+        counterDeltas.merge(new CounterKey(footprint.boardId(), BoardCounter.Kind.STATE, footprint.state()), (long) sign, Long::sum);
+        if (footprint.dueKey() != null) {
+            counterDeltas.merge(new CounterKey(footprint.boardId(), BoardCounter.Kind.DUE, footprint.dueKey()), (long) sign, Long::sum);
+        }
+    }
+
+    private void adjust(CounterKey key, long delta) {
+        String kind = key.kind().name();
+        if (counterRepository.adjust(key.boardId(), kind, key.key(), delta) == 0
+                && counterRepository.insertIfAbsent(key.boardId(), kind, key.key(), delta) == 0) {
+            counterRepository.adjust(key.boardId(), kind, key.key(), delta);
+        }
+    }
+
+    /**
+     * Recomputes every counter of the board from grouped card counts; no card is loaded.
+     */
+    private int[] recount(Long boardId) {
+        boardRepository.lockForCounters(boardId);
+
+        int cards = 0;
+        int assigned = 0;
+        Map<CounterKey, Long> counters = new HashMap<>();
+        for (Object[] row : cardRepository.countByBoardIdGroupedByStateAndDueDate(boardId)) {
+            String state = row[0] != null ? (String) row[0] : NO_STATE;
+            long count = ((Number) row[2]).longValue();
+            cards += (int) count;
+            assigned += ((Number) row[3]).intValue();
+            counters.merge(new CounterKey(boardId, BoardCounter.Kind.STATE, state), count, Long::sum);
+            String dueKey = isDone(state) ? null : normalizeDueDate((String) row[1]);
+            if (dueKey != null) {
+                counters.merge(new CounterKey(boardId, BoardCounter.Kind.DUE, dueKey), count, Long::sum);
+            }
+        }
+
+        for (Object[] row : listRepository.countCardsByBoardId(boardId)) {
+            listRepository.setCardCount((Long) row[0], ((Number) row[1]).intValue());
+        }
+        counterRepository.deleteByBoardId(boardId);
+        counters.forEach((key, count) -> counterRepository.insertIfAbsent(boardId, key.kind().name(), key.key(), count));
+        boardRepository.setCounters(boardId, cards, assigned);
+        log.info("Recounted board {}: {} cards, {} assigned", boardId, cards, assigned);
+        return new int[] {cards, assigned};
+    }
+
+    static boolean isDone(String state) {
+        return "Done".equalsIgnoreCase(state.trim());
+    }
+
+    /**
+     * Normalizes a due date to yyyy-MM-dd; anything that doesn't start with an ISO date isn't counted as due.
+     */
+    static String normalizeDueDate(String dueDate) {
+        if (dueDate == null || dueDate.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dueDate.substring(0, 10)).toString();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private record CounterKey(Long boardId, BoardCounter.Kind kind, String key) { }
+}
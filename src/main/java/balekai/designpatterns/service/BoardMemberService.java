@@ -0,0 +1,118 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.BoardMember;
+import balekai.designpatterns.model.BoardMember.Role;
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.BoardMemberRepository;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.response.BoardMemberResponse;
+import balekai.designpatterns.security.BoardAccessPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shares boards with other users. Access checks are done by the caller through
+ * {@link BoardAccessPolicy}; this service keeps board_member consistent and drops
+ * the policy's cached role once a change commits.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class BoardMemberService {
+
+    @Autowired
+    private BoardMemberRepository boardMemberRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoardAccessPolicy boardAccessPolicy;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    public static Role parseRole(String role) {
+        try {
+            return Role.valueOf(role.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown role: " + role + " (expected viewer, editor or admin)");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<BoardMemberResponse> members(Long boardId) {
+        Board board = boardRepository.findById(boardId)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+        List<BoardMemberResponse> members = new ArrayList<>();
+        userRepository.findById(board.getOwnerId()).ifPresent(owner ->
+                members.add(new BoardMemberResponse(owner.getId(), owner.getName(), owner.getEmail(), "owner", null)));
+        for (Object[] row : boardMemberRepository.findMembers(boardId)) {
+            members.add(new BoardMemberResponse((String) row[0], (String) row[1], (String) row[2],
+                    ((Role) row[3]).name().toLowerCase(Locale.ROOT), (LocalDateTime) row[4]));
+        }
+        return members;
+    }
+
+    /**
+     * Adds {@code userId} to the board with {@code role}, or changes the role of an existing member.
+     */
+    @Transactional
+    public BoardMember setRole(Long boardId, String userId, Role role) {
+        BoardAccessPolicy.BoardAccess access = boardAccessPolicy.forBoard(boardId);
+        if (access.isOwner(userId)) {
+            throw new IllegalArgumentException("The board owner's role can't be changed");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+
+        BoardMember member = boardMemberRepository.findByBoardIdAndUserId(boardId, userId).orElse(null);
+        String type;
+        if (member == null) {
+            member = new BoardMember(null, boardId, user.getId(), role, LocalDateTime.now());
+            type = "board.member-added";
+        } else if (member.getRole() != role) {
+            member.setRole(role);
+            type = "board.member-updated";
+        } else {
+            return member;
+        }
+        BoardMember saved = boardMemberRepository.save(member);
+        boardAccessPolicy.invalidateMember(boardId, userId);
+        outboxService.boardMember(type, boardId, userId, role.name().toLowerCase(Locale.ROOT));
+        log.info("Board {}: {} is now {}", boardId, userId, role);
+        return saved;
+    }
+
+    /**
+     * @return false if the user wasn't a member
+     */
+    @Transactional
+    public boolean remove(Long boardId, String userId) {
+        if (boardMemberRepository.deleteMember(boardId, userId) == 0) {
+            return false;
+        }
+        boardAccessPolicy.invalidateMember(boardId, userId);
+        outboxService.boardMember("board.member-removed", boardId, userId, null);
+        return true;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void boardDeleted(Long boardId) {
+        boardMemberRepository.deleteByBoardId(boardId);
+    }
+}
@@ -3,10 +3,12 @@ package balekai.designpatterns.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import balekai.designpatterns.model.Board;
 import balekai.designpatterns.repository.BoardRepository;
 import balekai.designpatterns.repository.UserRepository;
 import balekai.designpatterns.response.BoardResponse;
+import balekai.designpatterns.security.BoardAccessPolicy;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -21,6 +23,21 @@ public class BoardService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private CardAnalyticsService cardAnalyticsService;
+
+    @Autowired
+    private CardArchiveService cardArchiveService;
+
+    @Autowired
+    private BoardAccessPolicy boardAccessPolicy;
+
+    @Autowired
+    private BoardMemberService boardMemberService;
+
     public List<BoardResponse> getAllBoards() {
         return boardRepository.findAll().stream().map(board -> {
             BoardResponse dto = new BoardResponse();
@@ -56,11 +73,21 @@ public class BoardService {
     public Board updateBoard(Long id, Board updatedBoard) {
         Board board = getBoard(id);
         board.setName(updatedBoard.getName());
+        if (!board.getOwnerId().equals(updatedBoard.getOwnerId())) {
+            boardMemberService.remove(id, updatedBoard.getOwnerId()); // the new owner doesn't need a membership
+        }
         board.setOwnerId(updatedBoard.getOwnerId());
+        boardAccessPolicy.invalidate(id);
         return boardRepository.save(board);
     }
 
+    @Transactional
     public void deleteBoard(Long id) {
         boardRepository.deleteById(id);
+        boardCounterService.boardDeleted(id);
+        cardAnalyticsService.boardDeleted(id);
+        cardArchiveService.boardDeleted(id);
+        boardMemberService.boardDeleted(id);
+        boardAccessPolicy.invalidate(id);
     }
 }
@@ -0,0 +1,386 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.TrelloList;
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.TrelloListRepository;
+import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.response.BoardImportResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies whole boards in and out as newline-delimited JSON: one "board" line, then its
+ * "list" lines, then one "card" line per card carrying its comments and state history.
+ *
+ * Export reads cards, comments and history through a single cursor ordered by card id,
+ * so only one card is held in memory at a time. Import parses the stream line by line and
+ * writes cards in JDBC batches; memory is bounded by the batch size, not the board size.
+ * List and card ids in the stream are the exporting board's; import assigns new ones.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+public class BoardTransferService {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+    private static final int FORMAT_VERSION = 1;
+
+    // Card rows (kind 0) followed by their comments (1) and history entries (2), grouped by card.
+    // The element tables have no order column; ordinal numbers each card's elements in physical
+    // (ctid) order, the order the app reads them in, because PostgreSQL's sort isn't stable.
+    private static final String EXPORT_CARDS_SQL =
+            "SELECT c.id AS card_id, 0 AS kind, 0 AS ordinal, c.list_id, c.title, c.description, c.label, c.due_date, c.created_at, "
+                    + "c.current_state, c.state_entered_at, c.assigned_user_id, NULL AS element "
+                    + "FROM card c JOIN trello_list l ON l.id = c.list_id WHERE l.board_id = ? "
+                    + "UNION ALL SELECT cc.card_id, 1, ROW_NUMBER() OVER (PARTITION BY cc.card_id ORDER BY cc.ctid), "
+                    + "NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, cc.comments "
+                    + "FROM card_comments cc JOIN card c ON c.id = cc.card_id JOIN trello_list l ON l.id = c.list_id WHERE l.board_id = ? "
+                    + "UNION ALL SELECT sh.card_id, 2, ROW_NUMBER() OVER (PARTITION BY sh.card_id ORDER BY sh.ctid), "
+                    + "NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, sh.state_history "
+                    + "FROM card_state_history sh JOIN card c ON c.id = sh.card_id JOIN trello_list l ON l.id = c.list_id WHERE l.board_id = ? "
+                    + "ORDER BY card_id, kind, ordinal";
+
+    private static final String INSERT_CARD_SQL =
+            "INSERT INTO card (list_id, title, description, label, due_date, created_at, current_state, state_entered_at, assigned_user_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TrelloListRepository trelloListRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${boards.transfer.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${boards.transfer.batch-size:500}")
+    private int batchSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Postgres only streams a result set with a fetch size inside a transaction
+        jdbcTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportBoard(Long boardId, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                writeBoard(json, boardId);
+                jdbcTemplate.query("SELECT id, name FROM trello_list WHERE board_id = ? ORDER BY id", rs -> {
+                    long id = rs.getLong("id");
+                    String name = rs.getString("name");
+                    writeLine(json, () -> {
+                        json.writeStringField("type", "list");
+                        json.writeNumberField("id", id);
+                        json.writeStringField("name", name);
+                    });
+                }, boardId);
+                CardWriter cards = new CardWriter(json);
+                jdbcTemplate.query(EXPORT_CARDS_SQL, cards::accept, boardId, boardId, boardId);
+                cards.flush();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        json.writeRaw('\n');
+        json.flush();
+    }
+
+    /**
+     * Creates a new private board owned by {@code owner} from an export stream, in one transaction.
+     * Assignees that don't exist on this instance are dropped.
+     */
+    @Transactional
+    public BoardImportResult importBoard(InputStream in, User owner) throws IOException {
+        try (MappingIterator<JsonNode> lines = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            if (!lines.hasNext()) {
+                throw new IllegalArgumentException("Import stream is empty");
+            }
+            JsonNode header = lines.next();
+            if (!"board".equals(header.path("type").asText())) {
+                throw new IllegalArgumentException("Import stream must start with a board line");
+            }
+
+            Board board = new Board();
+            board.setName(header.path("name").asText("Imported board"));
+            board.setOwnerId(owner.getId());
+            board.setOwnerName(header.hasNonNull("ownerName") ? header.get("ownerName").asText() : owner.getName());
+            board.setVisibility(text(header, "visibility"));
+            board.setAPrivate(true); // ✅ Same as created boards: always private
+            board = boardRepository.save(board);
+
+            CardBatch batch = new CardBatch();
+            Map<Long, Long> listIds = new HashMap<>();
+            while (lines.hasNext()) {
+                JsonNode line = lines.next();
+                switch (line.path("type").asText()) {
+                    case "list" -> {
+                        TrelloList list = new TrelloList();
+                        list.setName(text(line, "name"));
+                        list.setBoard(board);
+                        listIds.put(line.path("id").asLong(), trelloListRepository.save(list).getId());
+                    }
+                    case "card" -> {
+                        Long listId = listIds.get(line.path("listId").asLong());
+                        if (listId == null) {
+                            throw new IllegalArgumentException("Card " + line.path("id").asText() + " refers to a list that wasn't imported");
+                        }
+                        batch.add(listId, line);
+                        if (batch.size() >= batchSize) {
+                            batch.flush();
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown line type: " + line.path("type").asText());
+                }
+            }
+            batch.flush();
+
+            outboxService.board("board.imported", board);
+            return new BoardImportResult(board.getId(), listIds.size(), batch.cards, batch.comments, batch.history);
+        }
+    }
+
+    private void writeBoard(JsonGenerator json, Long boardId) {
+        Map<String, Object> board = jdbcTemplate.queryForMap(
+                "SELECT name, is_private, visibility, owner_name FROM board WHERE id = ?", boardId);
+        writeLine(json, () -> {
+            json.writeStringField("type", "board");
+            json.writeNumberField("format", FORMAT_VERSION);
+            json.writeStringField("name", (String) board.get("name"));
+            json.writeBooleanField("isPrivate", Boolean.TRUE.equals(board.get("is_private")));
+            json.writeStringField("visibility", (String) board.get("visibility"));
+            json.writeStringField("ownerName", (String) board.get("owner_name"));
+        });
+    }
+
+    private interface Fields {
+        void write() throws IOException;
+    }
+
+    private static void writeLine(JsonGenerator json, Fields fields) {
+        try {
+            json.writeStartObject();
+            fields.write();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static String iso(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    private static Timestamp timestamp(JsonNode node, String field) {
+        String value = text(node, field);
+        return value != null ? Timestamp.valueOf(LocalDateTime.parse(value)) : null;
+    }
+
+    /**
+     * Assembles one card line at a time from the grouped cursor rows.
+     */
+    private static class CardWriter {
+        private final JsonGenerator json;
+        private Map<String, Object> card;
+        private final List<String> comments = new ArrayList<>();
+        private final List<String> history = new ArrayList<>();
+
+        CardWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            int kind = rs.getInt("kind");
+            if (kind == 0) {
+                flush();
+                card = new HashMap<>();
+                card.put("id", rs.getLong("card_id"));
+                card.put("listId", rs.getLong("list_id"));
+                card.put("title", rs.getString("title"));
+                card.put("description", rs.getString("description"));
+                card.put("label", rs.getString("label"));
+                card.put("dueDate", rs.getString("due_date"));
+                card.put("createdAt", iso(rs.getTimestamp("created_at")));
+                card.put("currentState", rs.getString("current_state"));
+                card.put("stateEnteredAt", iso(rs.getTimestamp("state_entered_at")));
+                card.put("assignedUserId", rs.getString("assigned_user_id"));
+            } else if (kind == 1) {
+                comments.add(rs.getString("element"));
+            } else {
+                history.add(rs.getString("element"));
+            }
+        }
+
+        void flush() {
+            if (card == null) {
+                return;
+            }
+            writeLine(json, () -> {
+                json.writeStringField("type", "card");
+                for (String field : List.of("id", "listId")) {
+                    json.writeNumberField(field, (Long) card.get(field));
+                }
+                for (String field : List.of("title", "description", "label", "dueDate", "createdAt",
+                        "currentState", "stateEnteredAt", "assignedUserId")) {
+                    json.writeStringField(field, (String) card.get(field));
+                }
+                writeArray("comments", comments);
+                writeArray("stateHistory", history);
+            });
+            card = null;
+            comments.clear();
+            history.clear();
+        }
+
+        private void writeArray(String field, List<String> values) throws IOException {
+            json.writeArrayFieldStart(field);
+            for (String value : values) {
+                json.writeString(value);
+            }
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * Cards waiting to be inserted; flushed as one JDBC batch per table.
+     */
+    private class CardBatch {
+        private final List<Long> listIds = new ArrayList<>();
+        private final List<JsonNode> lines = new ArrayList<>();
+        private final Map<String, Boolean> knownUsers = new HashMap<>();
+        long cards;
+        long comments;
+        long history;
+
+        void add(Long listId, JsonNode line) {
+            listIds.add(listId);
+            lines.add(line);
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        void flush() {
+            if (lines.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                List<Long> cardIds = new ArrayList<>(lines.size());
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_CARD_SQL, new String[] {"id"})) {
+                    for (int i = 0; i < lines.size(); i++) {
+                        JsonNode line = lines.get(i);
+                        insert.setLong(1, listIds.get(i));
+                        insert.setString(2, text(line, "title"));
+                        insert.setString(3, text(line, "description"));
+                        insert.setString(4, text(line, "label"));
+                        insert.setString(5, text(line, "dueDate"));
+                        insert.setTimestamp(6, timestamp(line, "createdAt"));
+                        insert.setString(7, text(line, "currentState"));
+                        insert.setTimestamp(8, timestamp(line, "stateEnteredAt"));
+                        String assignee = text(line, "assignedUserId");
+                        if (assignee != null && knownUsers.computeIfAbsent(assignee, userRepository::existsById)) {
+                            insert.setString(9, assignee);
+                        } else {
+                            insert.setNull(9, Types.VARCHAR);
+                        }
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            cardIds.add(keys.getLong(1));
+                        }
+                    }
+                }
+                if (cardIds.size() != lines.size()) {
+                    throw new IllegalStateException("Expected " + lines.size() + " generated card ids, got " + cardIds.size());
+                }
+                comments += insertElements(connection, "INSERT INTO card_comments (card_id, comments) VALUES (?, ?)", cardIds, "comments");
+                history += insertElements(connection, "INSERT INTO card_state_history (card_id, state_history) VALUES (?, ?)", cardIds, "stateHistory");
+                return null;
+            });
+            cards += lines.size();
+            listIds.clear();
+            lines.clear();
+        }
+
+        private int insertElements(Connection connection, String sql, List<Long> cardIds, String field)
+                throws SQLException {
+            int count = 0;
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (int i = 0; i < lines.size(); i++) {
+                    for (JsonNode element : lines.get(i).path(field)) {
+                        insert.setLong(1, cardIds.get(i));
+                        insert.setString(2, element.asText());
+                        insert.addBatch();
+                        count++;
+                    }
+                }
+                if (count > 0) {
+                    insert.executeBatch();
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.event.CardTransitionEvent;
+import balekai.designpatterns.model.BoardDurationBucket;
+import balekai.designpatterns.model.BoardDurationBucket.Metric;
+import balekai.designpatterns.repository.BoardAnalyticsRepository;
+import balekai.designpatterns.repository.CardRepository;
+import balekai.designpatterns.response.BoardAnalytics;
+import balekai.designpatterns.response.BoardAnalytics.DurationSummary;
+import balekai.designpatterns.response.BoardAnalytics.FlowDay;
+import balekai.designpatterns.response.BoardStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Maintains per-board flow analytics from {@link CardTransitionEvent}s, so reading them never
+ * rescans card history:
+ * <ul>
+ *   <li>time-in-state and cycle-time (creation to Done) histograms, one row per log-scaled bucket</li>
+ *   <li>the net change of cards per state and day, from which cumulative flow is rebuilt backwards
+ *       from the board's current state counters; cards created before tracking started are therefore
+ *       still counted correctly today, only their earlier days are flat</li>
+ * </ul>
+ * Cycle time is recorded per completion, so a reopened card that is finished again counts twice.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+public class CardAnalyticsService {
+
+    // Buckets per doubling: bucket b >= 1 covers [2^((b-1)/4), 2^(b/4)) seconds, bucket 0 is under a second
+    private static final int SUB_BUCKETS = 4;
+    private static final int MAX_DAYS = 365;
+
+    @Autowired
+    private BoardAnalyticsRepository analyticsRepository;
+
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransition(CardTransitionEvent event) {
+        if (event.boardId() == null || event.at() == null) {
+            return;
+        }
+        Long boardId = event.boardId();
+        LocalDate day = event.at().toLocalDate();
+        String from = event.fromState() != null ? event.fromState() : BoardCounterService.NO_STATE;
+        String to = event.toState() != null ? event.toState() : BoardCounterService.NO_STATE;
+
+        // Moves between boards only change which board's flow counts the card
+        boolean created = event.type() == CardTransitionEvent.Type.CREATED || event.type() == CardTransitionEvent.Type.MOVED_IN;
+        boolean deleted = event.type() == CardTransitionEvent.Type.DELETED || event.type() == CardTransitionEvent.Type.MOVED_OUT;
+        boolean completed = event.type() == CardTransitionEvent.Type.CREATED
+                || (event.type() == CardTransitionEvent.Type.TRANSITIONED && !BoardCounterService.isDone(from));
+
+        if (!created) {
+            flow(boardId, day, from, -1);
+        }
+        if (!deleted) {
+            flow(boardId, day, to, 1);
+        }
+        if (!created && !deleted && event.fromStateEnteredAt() != null) {
+            sample(boardId, Metric.TIME_IN_STATE, from, event.fromStateEnteredAt(), event.at());
+        }
+        if (completed && BoardCounterService.isDone(to) && event.createdAt() != null) {
+            sample(boardId, Metric.CYCLE_TIME, BoardCounterService.NO_STATE, event.createdAt(), event.at());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void boardDeleted(Long boardId) {
+        analyticsRepository.deleteBucketsByBoardId(boardId);
+        analyticsRepository.deleteFlowByBoardId(boardId);
+    }
+
+    // Archived cards and the cards of a deleted list leave the board's state counters, so they leave the flow on the same day
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardsRemoved(Long boardId, String state, long count, LocalDateTime at) {
+        flow(boardId, at.toLocalDate(), state != null ? state : BoardCounterService.NO_STATE, -count);
+    }
+
+    // Deleting a list deletes its cards too; call before the delete, while they can still be counted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void listDeleted(Long boardId, Long listId, LocalDateTime at) {
+        for (Object[] row : cardRepository.countByListIdGroupedByState(listId)) {
+            cardsRemoved(boardId, (String) row[0], (Long) row[1], at);
+        }
+    }
+
+    /**
+     * Returns null if the board doesn't exist.
+     */
+    @Transactional
+    public BoardAnalytics analytics(Long boardId, int days) {
+        BoardStats stats = boardCounterService.stats(boardId);
+        if (stats == null) {
+            return null;
+        }
+
+        Map<String, List<BoardDurationBucket>> timeInState = new TreeMap<>();
+        List<BoardDurationBucket> cycleTime = new ArrayList<>();
+        for (BoardDurationBucket bucket : analyticsRepository.findBuckets(boardId)) {
+            if (bucket.getMetric() == Metric.CYCLE_TIME) {
+                cycleTime.add(bucket);
+            } else {
+                timeInState.computeIfAbsent(bucket.getState(), state -> new ArrayList<>()).add(bucket);
+            }
+        }
+        List<DurationSummary> summaries = new ArrayList<>();
+        timeInState.forEach((state, buckets) -> summaries.add(summarize(state, buckets)));
+
+        return new BoardAnalytics(boardId, summaries, summarize(null, cycleTime),
+                cumulativeFlow(boardId, stats.byState(), Math.max(1, Math.min(days, MAX_DAYS))));
+    }
+
+    /**
+     * Walks back from today's counts: the count at the end of a day is the next day's count
+     * minus that next day's net change.
+     */
+    private List<FlowDay> cumulativeFlow(Long boardId, Map<String, Long> current, int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(days - 1);
+        Map<LocalDate, Map<String, Long>> deltas = new HashMap<>();
+        TreeSet<String> states = new TreeSet<>(current.keySet());
+        for (Object[] row : analyticsRepository.findFlowAfter(boardId, first)) {
+            deltas.computeIfAbsent((LocalDate) row[0], day -> new HashMap<>()).put((String) row[1], ((Number) row[2]).longValue());
+            states.add((String) row[1]);
+        }
+
+        Map<String, Long> counts = new HashMap<>(current);
+        FlowDay[] flow = new FlowDay[days];
+        for (int i = days - 1; i >= 0; i--) {
+            LocalDate day = first.plusDays(i);
+            Map<String, Long> snapshot = new LinkedHashMap<>();
+            states.forEach(state -> snapshot.put(state, counts.getOrDefault(state, 0L)));
+            flow[i] = new FlowDay(day, snapshot);
+            deltas.getOrDefault(day, Map.of()).forEach((state, delta) -> counts.merge(state, -delta, Long::sum));
+        }
+        return List.of(flow);
+    }
+
+    private void flow(Long boardId, LocalDate day, String state, long delta) {
+        if (analyticsRepository.addFlow(boardId, day, state, delta) == 0
+                && analyticsRepository.insertFlow(boardId, day, state, delta) == 0) {
+            analyticsRepository.addFlow(boardId, day, state, delta);
+        }
+    }
+
+    private void sample(Long boardId, Metric metric, String state, LocalDateTime from, LocalDateTime to) {
+        long seconds = Math.max(0, Duration.between(from, to).toSeconds());
+        int bucket = bucketOf(seconds);
+        if (analyticsRepository.addSample(boardId, metric.name(), state, bucket, seconds) == 0
+                && analyticsRepository.insertSample(boardId, metric.name(), state, bucket, seconds) == 0) {
+            analyticsRepository.addSample(boardId, metric.name(), state, bucket, seconds);
+        }
+    }
+
+    static int bucketOf(long seconds) {
+        if (seconds < 1) {
+            return 0;
+        }
+        return 1 + (int) Math.floor(Math.log(seconds) / Math.log(2) * SUB_BUCKETS);
+    }
+
+    static double lowerBound(int bucket) {
+        return bucket == 0 ? 0 : Math.pow(2, (bucket - 1) / (double) SUB_BUCKETS);
+    }
+
+    static double upperBound(int bucket) {
+        return Math.pow(2, bucket / (double) SUB_BUCKETS);
+    }
+
+    private static DurationSummary summarize(String state, List<BoardDurationBucket> buckets) {
+        long samples = 0;
+        long totalSeconds = 0;
+        for (BoardDurationBucket bucket : buckets) {
+            samples += bucket.getSamples();
+            totalSeconds += bucket.getTotalSeconds();
+        }
+        if (samples == 0) {
+            return new DurationSummary(state, 0, 0, 0, 0, 0);
+        }
+        return new DurationSummary(state, samples, totalSeconds / samples,
+                percentile(buckets, samples, 0.50), percentile(buckets, samples, 0.85), percentile(buckets, samples, 0.95));
+    }
+
+    // Buckets arrive ordered by bucket index; interpolates linearly inside the bucket holding the rank
+    static long percentile(List<BoardDurationBucket> buckets, long samples, double quantile) {
+        double rank = quantile * samples;
+        long seen = 0;
+        for (BoardDurationBucket bucket : buckets) {
+            if (seen + bucket.getSamples() >= rank) {
+                double fraction = (rank - seen) / bucket.getSamples();
+                double low = lowerBound(bucket.getBucket());
+                return Math.round(low + fraction * (upperBound(bucket.getBucket()) - low));
+            }
+            seen += bucket.getSamples();
+        }
+        return Math.round(upperBound(buckets.get(buckets.size() - 1).getBucket()));
+    }
+}
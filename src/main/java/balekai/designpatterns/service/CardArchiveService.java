@@ -0,0 +1,192 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.ArchivedCard;
+import balekai.designpatterns.repository.ArchivedCardRepository;
+import balekai.designpatterns.repository.CardRepository;
+import balekai.designpatterns.response.ArchivedCardPage;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Moves finished cards out of the hot card table into archived_card.
+ *
+ * A card is archived once it sits in a list named "Done", in the Done state, and has not changed
+ * state for {@code archive.done-after-days}; cards created before state changes were timestamped
+ * stay until they next change state. Each batch locks the cards that are still eligible, copies them
+ * with their comments and state history and deletes the originals in one transaction, so board, list
+ * and card queries only ever scan live cards. The board's counters are recounted on their next read, the Done column of
+ * its cumulative flow drops on the day of archival, and a "board.cards-archived" outbox event lists
+ * the moved ids. Archived cards are read-only and are listed and searched per board, newest first.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class CardArchiveService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private ArchivedCardRepository archivedCardRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private CardAnalyticsService cardAnalyticsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.done-after-days:30}")
+    private int doneAfterDays;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Archives every eligible card, one batch per transaction.
+     *
+     * @return the number of cards archived
+     */
+    @Scheduled(cron = "${archive.cron:0 40 3 * * *}")
+    public int archiveDoneCards() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(doneAfterDays);
+        int total = 0;
+        Long after = 0L;
+        // Keep going past batches whose cards were all moved out of Done in the meantime
+        while (true) {
+            List<Long> candidates = cardRepository.findArchivableIds(cutoff, after, PageRequest.of(0, batchSize));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            after = candidates.get(candidates.size() - 1);
+            total += transactionTemplate.execute(tx -> archiveBatch(candidates, cutoff));
+        }
+        if (total > 0) {
+            log.info("Archived {} cards done before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    @Transactional(readOnly = true)
+    public ArchivedCardPage page(Long boardId, String query, String cursor, Integer limit) {
+        int pageSize = Math.min(Math.max(limit == null ? DEFAULT_PAGE_SIZE : limit, 1), MAX_PAGE_SIZE);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        Long before = cursor == null ? Long.MAX_VALUE : decodeCursor(cursor);
+        List<ArchivedCard> cards = query == null || query.isBlank()
+                ? archivedCardRepository.findPage(boardId, before, page)
+                : archivedCardRepository.searchPage(boardId, before, likePattern(query), page);
+
+        boolean hasMore = cards.size() > pageSize;
+        List<ArchivedCard> pageCards = hasMore ? cards.subList(0, pageSize) : cards;
+        List<Long> ids = pageCards.stream().map(ArchivedCard::getId).toList();
+        Map<Long, List<String>> comments = ids.isEmpty() ? Map.of() : group(archivedCardRepository.findComments(ids));
+        Map<Long, List<String>> history = ids.isEmpty() ? Map.of() : group(archivedCardRepository.findStateHistory(ids));
+
+        List<ArchivedCardPage.Entry> entries = new ArrayList<>();
+        for (ArchivedCard card : pageCards) {
+            entries.add(new ArchivedCardPage.Entry(card.getId(), card.getListId(), card.getListName(), card.getTitle(),
+                    card.getDescription(), card.getLabel(), card.getDueDate(), card.getCreatedAt(),
+                    card.getCurrentState(), card.getStateEnteredAt(), card.getAssignedUserId(), card.getArchivedAt(),
+                    comments.getOrDefault(card.getId(), List.of()), history.getOrDefault(card.getId(), List.of())));
+        }
+        return new ArchivedCardPage(entries, hasMore ? encodeCursor(pageCards.get(pageSize - 1).getId()) : null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void boardDeleted(Long boardId) {
+        archivedCardRepository.deleteCommentsByBoardId(boardId);
+        archivedCardRepository.deleteStateHistoryByBoardId(boardId);
+        archivedCardRepository.deleteByBoardId(boardId);
+    }
+
+    private int archiveBatch(List<Long> candidates, LocalDateTime cutoff) {
+        List<Long> ids = cardRepository.lockArchivable(candidates, cutoff);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> boardIds = cardRepository.findBoardIdsByCardIds(ids);
+        archivedCardRepository.copyCards(ids, now);
+        archivedCardRepository.copyComments(ids);
+        archivedCardRepository.copyStateHistory(ids);
+        cardRepository.deleteCommentsByCardIds(ids);
+        cardRepository.deleteStateHistoryByCardIds(ids);
+        cardRepository.deleteByIds(ids);
+
+        for (Object[] row : archivedCardRepository.countByIdsGroupedByBoardAndState(ids)) {
+            cardAnalyticsService.cardsRemoved((Long) row[0], (String) row[1], (Long) row[2], now);
+        }
+        Map<Long, List<Long>> idsByBoard = new HashMap<>();
+        for (ArchivedCard card : archivedCardRepository.findAllById(ids)) {
+            idsByBoard.computeIfAbsent(card.getBoardId(), key -> new ArrayList<>()).add(card.getId());
+        }
+        for (Long boardId : boardIds) {
+            boardCounterService.invalidate(boardId);
+            outboxService.cardsArchived(boardId, idsByBoard.getOrDefault(boardId, List.of()));
+        }
+        return ids.size();
+    }
+
+    private static Map<Long, List<String>> group(List<Object[]> rows) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent(((Number) row[0]).longValue(), key -> new ArrayList<>()).add((String) row[1]);
+        }
+        return grouped;
+    }
+
+    private static String likePattern(String query) {
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
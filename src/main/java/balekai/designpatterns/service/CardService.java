@@ -1,9 +1,11 @@
 package balekai.designpatterns.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import balekai.designpatterns.event.CardTransitionEvent;
 import balekai.designpatterns.model.Card;
 import balekai.designpatterns.model.TrelloList;
 import balekai.designpatterns.repository.CardRepository;
@@ -12,30 +14,50 @@ import balekai.designpatterns.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @Profile("!test") // Don't load this service in test profile
 public class CardService {
 
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "description", "label", "dueDate");
+    private static final int MAX_TEXT_LENGTH = 255;
+
     @Autowired
     private CardRepository cardRepository;
 
     @Autowired
     private TrelloListRepository listRepository;
 
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
     public Card createCard(Card card) {
         Long listId = card.getList().getId();
         TrelloList list = listRepository.findById(listId)
                 .orElseThrow(() -> new RuntimeException("List not found"));
         card.setList(list);
-        return cardRepository.save(card);
+        card.setStateEnteredAt(LocalDateTime.now());
+        Card savedCard = cardRepository.save(card);
+        boardCounterService.cardCreated(savedCard);
+        eventPublisher.publishEvent(CardTransitionEvent.created(savedCard));
+        return savedCard;
     }
 
+    @Transactional
     public void deleteCardsByListId(Long listId) {
         List<Card> cards = cardRepository.findByListId(listId);
-        cardRepository.deleteAll(cards);
+        cards.forEach(this::delete);
     }
 
 
@@ -43,18 +65,94 @@ public class CardService {
         return cardRepository.findByListId(listId);
     }
 
+    @Transactional
     public Card updateCard(Long id, Card updatedCard) {
         Card card = cardRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
         card.setTitle(updatedCard.getTitle());
         card.setDescription(updatedCard.getDescription());
         card.setLabel(updatedCard.getLabel());
         card.setDueDate(updatedCard.getDueDate());
-        return cardRepository.save(card);
+        Card savedCard = cardRepository.save(card);
+        boardCounterService.cardChanged(before, savedCard);
+        return savedCard;
     }
 
+    /**
+     * Applies a JSON Merge Patch (RFC 7386) to the card's text fields: a present key sets the field,
+     * null clears it, an absent key leaves it alone. Every field is validated before any is applied.
+     * With dynamic updates only the changed columns are written, and nothing at all if no value changed.
+     *
+     * @return the fields whose value changed, with their new values
+     */
+    @Transactional
+    public Map<String, Object> patchCard(Card card, Map<String, Object> patch) {
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            String field = entry.getKey();
+            Object value = entry.getValue();
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                errors.add(field + " can't be patched");
+            } else if (value != null && !(value instanceof String)) {
+                errors.add(field + " must be a string or null");
+            } else if (value != null && ((String) value).length() > MAX_TEXT_LENGTH) {
+                errors.add(field + " must be at most " + MAX_TEXT_LENGTH + " characters");
+            } else if (field.equals("title") && (value == null || ((String) value).isBlank())) {
+                errors.add("title can't be empty");
+            } else if (field.equals("dueDate") && value != null && !((String) value).isEmpty()
+                    && BoardCounterService.normalizeDueDate((String) value) == null) {
+                errors.add("dueDate must start with an ISO date (yyyy-MM-dd)");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid patch: " + String.join("; ", errors));
+        }
+
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
+        Map<String, Object> changed = new LinkedHashMap<>();
+        patch.forEach((field, value) -> {
+            String text = (String) value;
+            switch (field) {
+                case "title" -> applyIfChanged(changed, field, card.getTitle(), text, card::setTitle);
+                case "description" -> applyIfChanged(changed, field, card.getDescription(), text, card::setDescription);
+                case "label" -> applyIfChanged(changed, field, card.getLabel(), text, card::setLabel);
+                case "dueDate" -> applyIfChanged(changed, field, card.getDueDate(), text, card::setDueDate);
+                default -> throw new IllegalStateException("Unhandled patch field " + field);
+            }
+        });
+        if (changed.isEmpty()) {
+            return changed;
+        }
+        // Flushed here so the caller sees the new version
+        cardRepository.saveAndFlush(card);
+        if (changed.containsKey("dueDate")) {
+            boardCounterService.cardChanged(before, card);
+        }
+        return changed;
+    }
+
+    private static void applyIfChanged(Map<String, Object> changed, String field, String current, String value,
+                                       Consumer<String> setter) {
+        if (!Objects.equals(current, value)) {
+            setter.accept(value);
+            changed.put(field, value);
+        }
+    }
+
+    @Transactional
     public void deleteCard(Long id) {
-        cardRepository.deleteById(id);
+        cardRepository.findById(id).ifPresent(this::delete);
+    }
+
+    private void delete(Card card) {
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
+        if (card.getList() != null) {
+            card.getList().getCards().remove(card); // otherwise the list's cascade re-persists the card on flush
+        }
+        cardRepository.delete(card);
+        boardCounterService.cardDeleted(before);
+        eventPublisher.publishEvent(CardTransitionEvent.deleted(card, LocalDateTime.now()));
     }
 
     @Transactional
@@ -63,15 +161,22 @@ public class CardService {
                 .orElseThrow(() -> new RuntimeException("Card not found with id: " + cardId));
 
         String previousState = card.getCurrentState();
+        LocalDateTime previousStateEnteredAt = card.getStateEnteredAt();
+        BoardCounterService.Footprint before = BoardCounterService.Footprint.of(card);
+        LocalDateTime now = LocalDateTime.now();
         card.setCurrentState(newState);
+        card.setStateEnteredAt(now);
 
         if (card.getStateHistory() == null) {
             card.setStateHistory(new ArrayList<>());
         }
         
-        String historyEntry = (previousState == null ? "Created" : previousState) + " → " + newState + " at " + LocalDateTime.now();
+        String historyEntry = (previousState == null ? "Created" : previousState) + " → " + newState + " at " + now;
         card.getStateHistory().add(historyEntry);
 
-        return cardRepository.save(card);
+        Card savedCard = cardRepository.save(card);
+        boardCounterService.cardChanged(before, savedCard);
+        eventPublisher.publishEvent(CardTransitionEvent.transitioned(savedCard, previousState, previousStateEnteredAt));
+        return savedCard;
     }
 }
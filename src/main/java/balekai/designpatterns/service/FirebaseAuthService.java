@@ -1,31 +1,75 @@
 package balekai.designpatterns.service;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseToken;
+import balekai.designpatterns.security.ExpiringCache;
+import balekai.designpatterns.security.FirebaseIdentity;
+import balekai.designpatterns.security.FirebaseTokenVerifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.FirebaseAccountLinkRepository;
 import balekai.designpatterns.repository.UserRepository;
-import balekai.designpatterns.repository.BoardRepository;
-import balekai.designpatterns.repository.CardRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Optional;
 
+/**
+ * Resolves Firebase ID tokens to app user ids.
+ *
+ * Verified tokens are cached until they expire, keyed by a SHA-256 digest so raw tokens are
+ * never held in memory, and the Firebase UID -> user id mapping is cached as well, so repeat
+ * calls with the same token cost neither a signature check nor a database round trip.
+ *
+ * A Firebase UID whose email matches an existing email/password account is linked to that
+ * account once, through {@link balekai.designpatterns.model.FirebaseAccountLink}.
+ */
 @Service
 @Slf4j
 public class FirebaseAuthService {
 
     @Autowired
-    private UserRepository userRepository;
+    private FirebaseTokenVerifier tokenVerifier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${firebase.token-cache.max-entries:10000}")
+    private int tokenCacheMaxEntries;
+
+    @Value("${firebase.user-cache.max-entries:10000}")
+    private int userCacheMaxEntries;
+
+    @Value("${firebase.user-cache.ttl-ms:600000}")
+    private long userCacheTtlMillis;
+
+    private ExpiringCache<String, FirebaseIdentity> verifiedTokens;
+    private ExpiringCache<String, String> userIds;
+    private Counter cacheHits;
+    private Counter cacheMisses;
 
     @Autowired
-    private BoardRepository boardRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private CardRepository cardRepository;
+    private FirebaseAccountLinkRepository firebaseAccountLinkRepository;
+
+    @PostConstruct
+    public void init() {
+        verifiedTokens = new ExpiringCache<>(tokenCacheMaxEntries);
+        userIds = new ExpiringCache<>(userCacheMaxEntries);
+        cacheHits = meterRegistry.counter("firebase.token.cache", "result", "hit");
+        cacheMisses = meterRegistry.counter("firebase.token.cache", "result", "miss");
+        meterRegistry.gauge("firebase.token.cache.size", verifiedTokens, ExpiringCache::size);
+    }
 
     /**
      * Authenticates a Firebase token and returns the user ID
@@ -39,47 +83,15 @@ public class FirebaseAuthService {
                 return null;
             }
 
-            String token = authHeader.substring(7);
-            FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
-            
-            String firebaseUid = decodedToken.getUid();
-            String email = decodedToken.getEmail();
-            String name = decodedToken.getName();
-
-            log.info("🔐 FirebaseAuthService: Authenticated Firebase user - UID: {}, Email: {}, Name: {}", 
-                    firebaseUid, email, name);
-
-            // Check if user exists with Firebase UID
-            Optional<User> existingFirebaseUser = userRepository.findById(firebaseUid);
-            if (existingFirebaseUser.isPresent()) {
-                log.info("🔐 FirebaseAuthService: User found with Firebase UID: {}", firebaseUid);
-                return firebaseUid;
-            }
+            FirebaseIdentity identity = verify(authHeader.substring(7));
+            String firebaseUid = identity.uid();
 
-            // Check if user exists with same email but different ID (email/password account)
-            Optional<User> existingEmailUser = userRepository.findByEmail(email);
-            if (existingEmailUser.isPresent()) {
-                User emailUser = existingEmailUser.get();
-                log.info("🔐 FirebaseAuthService: Found existing email/password user with email: {}, ID: {}", 
-                        email, emailUser.getId());
-                
-                // Link the Firebase account to the existing email/password account
-                linkFirebaseUserToExistingAccount(emailUser.getId(), firebaseUid);
-                return firebaseUid;
+            String userId = userIds.get(firebaseUid);
+            if (userId == null) {
+                userId = resolveUserId(identity);
+                userIds.put(firebaseUid, userId, System.currentTimeMillis() + userCacheTtlMillis);
             }
-
-            // Create new user for Firebase authentication
-            User newUser = User.builder()
-                    .id(firebaseUid)
-                    .name(name)
-                    .email(email)
-                    .password("") // Empty password for Firebase users
-                    .build();
-
-            userRepository.save(newUser);
-            log.info("🔐 FirebaseAuthService: Created new Firebase user with UID: {}", firebaseUid);
-            
-            return firebaseUid;
+            return userId;
 
         } catch (Exception e) {
             log.error("🔐 FirebaseAuthService: Authentication failed: {}", e.getMessage());
@@ -88,27 +100,91 @@ public class FirebaseAuthService {
     }
 
     /**
-     * Links a Firebase user to an existing email/password account
-     * Updates all foreign key references and then updates the user ID
+     * Drops the cached mapping for a user, e.g. after the account is deleted or relinked.
      */
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-    private void linkFirebaseUserToExistingAccount(String oldUserId, String newUserId) {
+    public void evictUser(String userId) {
+        userIds.invalidateIf(userId::equals);
+    }
+
+    private FirebaseIdentity verify(String token) {
+        String digest = digest(token);
+        FirebaseIdentity identity = verifiedTokens.get(digest);
+        if (identity != null) {
+            cacheHits.increment();
+            return identity;
+        }
+        cacheMisses.increment();
+        identity = tokenVerifier.verify(token);
+        verifiedTokens.put(digest, identity, identity.expiresAt().toEpochMilli());
+        return identity;
+    }
+
+    private String resolveUserId(FirebaseIdentity identity) {
+        String firebaseUid = identity.uid();
+        String email = identity.email();
+        String name = identity.name();
+
+        log.info("🔐 FirebaseAuthService: Authenticated Firebase user - UID: {}, Email: {}, Name: {}",
+                firebaseUid, email, name);
+
+        // Check if user exists with Firebase UID
+        Optional<User> existingFirebaseUser = userRepository.findById(firebaseUid);
+        if (existingFirebaseUser.isPresent()) {
+            log.info("🔐 FirebaseAuthService: User found with Firebase UID: {}", firebaseUid);
+            return firebaseUid;
+        }
+
+        // Already linked to an email/password account on an earlier login
+        Optional<String> linkedUserId = firebaseAccountLinkRepository.findUserIdByFirebaseUid(firebaseUid);
+        if (linkedUserId.isPresent()) {
+            return linkedUserId.get();
+        }
+
+        // Check if user exists with same email but different ID (email/password account)
+        Optional<User> existingEmailUser = userRepository.findByEmail(email);
+        if (existingEmailUser.isPresent()) {
+            User emailUser = existingEmailUser.get();
+            log.info("🔐 FirebaseAuthService: Found existing email/password user with email: {}, ID: {}",
+                    email, emailUser.getId());
+
+            // Link the Firebase account to the existing email/password account
+            return linkFirebaseUserToExistingAccount(emailUser.getId(), firebaseUid);
+        }
+
+        // Create new user for Firebase authentication
+        User newUser = User.builder()
+                .id(firebaseUid)
+                .name(name)
+                .email(email)
+                .password("") // Empty password for Firebase users
+                .build();
+
+        userRepository.save(newUser);
+        log.info("🔐 FirebaseAuthService: Created new Firebase user with UID: {}", firebaseUid);
+
+        return firebaseUid;
+    }
+
+    private static String digest(String token) {
         try {
-            // First, update all boards that reference the old user ID
-            boardRepository.updateOwnerId(oldUserId, newUserId);
-            log.info("🔐 FirebaseAuthService: Updated board ownership from {} to {}", oldUserId, newUserId);
-            
-            // Update all cards that reference the old user ID
-            cardRepository.updateAssignedUserId(oldUserId, newUserId);
-            log.info("🔐 FirebaseAuthService: Updated card assignments from {} to {}", oldUserId, newUserId);
-            
-            // Update the user's primary key using native SQL
-            userRepository.updateUserId(oldUserId, newUserId);
-            log.info("🔐 FirebaseAuthService: Updated user ID from {} to {}", oldUserId, newUserId);
-            
-        } catch (Exception e) {
-            log.error("🔐 FirebaseAuthService: Failed to link Firebase user to existing account: {}", e.getMessage());
-            throw new RuntimeException("Failed to link user accounts", e);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Links a Firebase user to an existing email/password account.
+     * One insert, whatever the size of the account's history; the account keeps its id so
+     * no board or card rows are rewritten. A concurrent first login for the same UID loses
+     * the insert and picks up the winner's link.
+     */
+    private String linkFirebaseUserToExistingAccount(String userId, String firebaseUid) {
+        if (firebaseAccountLinkRepository.insertIfAbsent(firebaseUid, userId, Instant.now()) == 1) {
+            log.info("🔐 FirebaseAuthService: Linked Firebase UID {} to existing account {}", firebaseUid, userId);
+            return userId;
         }
+        return firebaseAccountLinkRepository.findUserIdByFirebaseUid(firebaseUid).orElse(userId);
     }
 }
@@ -0,0 +1,146 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.IdempotencyRecord;
+import balekai.designpatterns.repository.IdempotencyRecordRepository;
+import balekai.designpatterns.security.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers the responses of mutating requests sent with an Idempotency-Key, so a retry
+ * gets the original response instead of running the write again.
+ *
+ * Keys are scoped to the caller. The idempotency_record table is the source of truth: the first
+ * request claims the key with an insert, and concurrent or later retries on any instance see the
+ * claim or the stored response. Completed responses are also kept in a bounded in-memory cache,
+ * so retries that land on the same instance don't touch the database. A claim whose request died
+ * without completing can be taken over after {@code idempotency.lock-timeout-ms}.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class IdempotencyService {
+
+    public enum Outcome { EXECUTE, REPLAY, IN_PROGRESS, MISMATCH }
+
+    public record StoredResponse(String requestHash, String bodyHash, int status, String contentType, String etag, byte[] body) { }
+
+    public record Decision(Outcome outcome, StoredResponse response) {
+        static Decision of(Outcome outcome) {
+            return new Decision(outcome, null);
+        }
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.lock-timeout-ms:60000}")
+    private long lockTimeoutMillis;
+
+    @Value("${idempotency.memory-entries:10000}")
+    private int memoryEntries;
+
+    @Value("${idempotency.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    private ExpiringCache<String, StoredResponse> recent;
+
+    @PostConstruct
+    public void init() {
+        recent = new ExpiringCache<>(memoryEntries);
+    }
+
+    /**
+     * Claims {@code key} for {@code caller}, or tells the caller how to answer a retry.
+     */
+    public Decision begin(String caller, String key, String requestHash) {
+        String id = recordId(caller, key);
+        StoredResponse cached = recent.get(id);
+        if (cached != null) {
+            return cached.requestHash().equals(requestHash) ? new Decision(Outcome.REPLAY, cached) : Decision.of(Outcome.MISMATCH);
+        }
+
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(ttlSeconds);
+        if (recordRepository.claim(id, requestHash, now, expiresAt) == 1
+                || recordRepository.takeOver(id, requestHash, now, expiresAt, now.minusMillis(lockTimeoutMillis)) == 1) {
+            return Decision.of(Outcome.EXECUTE);
+        }
+
+        IdempotencyRecord record = recordRepository.findById(id).orElse(null);
+        if (record == null) {
+            // Released between our claim and the read; the client's next retry will claim it
+            return Decision.of(Outcome.IN_PROGRESS);
+        }
+        if (!record.getRequestHash().equals(requestHash)) {
+            return Decision.of(Outcome.MISMATCH);
+        }
+        if (record.getStatus() == 0) {
+            return Decision.of(Outcome.IN_PROGRESS);
+        }
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getBodyHash(), record.getStatus(),
+                record.getContentType(), record.getEtag(), record.getBody());
+        recent.put(id, stored, record.getExpiresAt().toEpochMilli());
+        return new Decision(Outcome.REPLAY, stored);
+    }
+
+    /**
+     * Stores the response for retries. Bodies over {@code idempotency.max-body-bytes} are dropped;
+     * their retries get the original status and headers with an empty body.
+     */
+    public void complete(String caller, String key, String requestHash, String bodyHash, int status, String contentType,
+                         String etag, byte[] body) {
+        String id = recordId(caller, key);
+        byte[] kept = body != null && body.length <= maxBodyBytes ? body : null;
+        recordRepository.complete(id, bodyHash, status, contentType, etag, kept);
+        recent.put(id, new StoredResponse(requestHash, bodyHash, status, contentType, etag, kept),
+                System.currentTimeMillis() + ttlSeconds * 1000);
+    }
+
+    // The request failed in a way worth retrying (5xx, 429, 409, 412, exception): let the retry run it again
+    public void release(String caller, String key) {
+        recordRepository.release(recordId(caller, key));
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 23 * * * *}")
+    public void purgeExpired() {
+        int purged = recordRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    private static String recordId(String caller, String key) {
+        return sha256(caller + "\n" + key);
+    }
+
+    public static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256(byte[] value) {
+        return HexFormat.of().formatHex(sha256Digest().digest(value));
+    }
+
+    public static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
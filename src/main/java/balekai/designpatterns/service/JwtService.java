@@ -12,6 +12,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 @Profile("!test") // Don't load this service in test profile
@@ -33,32 +34,62 @@ public class JwtService {
     }
     
     public String generateAccessToken(String username) {
+        return generateAccessToken(username, null);
+    }
+
+    // sid ties the access token to its login session so logout can revoke it
+    public String generateAccessToken(String username, String sessionId) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRATION))
                 .claim("type", "access")
+                .claim("sid", sessionId)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
     
-    public String generateRefreshToken(String username) {
+    // gen counts the rotations within the session, so each refresh token can be used exactly once
+    public String generateRefreshToken(String username, String sessionId, long generation) {
         return Jwts.builder()
                 .setSubject(username)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRATION))
                 .claim("type", "refresh")
+                .claim("sid", sessionId)
+                .claim("gen", generation)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    // Starts a new login session
     public Map<String, String> generateTokenPair(String username) {
+        return generateTokenPair(username, UUID.randomUUID().toString(), 0);
+    }
+
+    // Rotates tokens within an existing session
+    public Map<String, String> generateTokenPair(String username, String sessionId, long generation) {
         Map<String, String> tokens = new HashMap<>();
-        tokens.put("accessToken", generateAccessToken(username));
-        tokens.put("refreshToken", generateRefreshToken(username));
+        tokens.put("accessToken", generateAccessToken(username, sessionId));
+        tokens.put("refreshToken", generateRefreshToken(username, sessionId, generation));
         return tokens;
     }
 
+    // Upper bound on how long any token of a session can outlive a revocation
+    public long getRefreshTokenExpirationMillis() {
+        return REFRESH_TOKEN_EXPIRATION;
+    }
+
+    // Verifies signature and expiry once and returns all claims
+    public Claims parseClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
     public String extractUsername(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
@@ -0,0 +1,250 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.event.OutboxConsumer;
+import balekai.designpatterns.model.OutboxEvent;
+import balekai.designpatterns.repository.OutboxDeadLetterRepository;
+import balekai.designpatterns.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox on a single background thread and hands each batch to every registered
+ * {@link OutboxConsumer}.
+ *
+ * A batch is claimed, delivered and deleted in one transaction, so there is one commit per
+ * batch rather than per event, and a batch that fails (or is cut short by a crash) stays in
+ * the table and is delivered again: at-least-once. Rows are claimed with SKIP LOCKED, so
+ * several instances can drain the same table; events stay in id order within a batch.
+ *
+ * When a batch fails, its events are delivered one at a time to find the one that fails. That
+ * event's attempt count goes up and delivery backs off; after {@code outbox.max-attempts} it is
+ * moved to outbox_dead_letter so the events behind it aren't held up forever.
+ *
+ * The thread wakes when a transaction that appended events commits, and polls as a fallback
+ * for events committed by other instances. It only runs with {@code outbox.enabled}, and refuses
+ * to start without a consumer rather than deleting events nobody read.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class OutboxDispatcher {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private ObjectProvider<OutboxConsumer> consumerProvider;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.poll-ms:1000}")
+    private long pollMillis;
+
+    @Value("${outbox.max-backoff-ms:30000}")
+    private long maxBackoffMillis;
+
+    @Value("${outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private Thread thread;
+    private List<OutboxConsumer> consumers;
+    private TransactionTemplate transactionTemplate;
+    private Counter dispatched;
+    private Counter failures;
+    private Counter parked;
+    private Timer deliveryLag;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox disabled (outbox.enabled=false)");
+            return;
+        }
+        consumers = consumerProvider.orderedStream().toList();
+        if (consumers.isEmpty()) {
+            throw new IllegalStateException("outbox.enabled is set but no OutboxConsumer bean is registered");
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        dispatched = meterRegistry.counter("outbox.dispatched");
+        failures = meterRegistry.counter("outbox.dispatch.failures");
+        parked = meterRegistry.counter("outbox.parked");
+        deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time from an event being appended to its delivery")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("outbox.backlog", outboxEventRepository, OutboxEventRepository::count)
+                .description("Events waiting to be dispatched")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", this, OutboxDispatcher::oldestEventAgeSeconds)
+                .description("Age of the oldest undispatched event")
+                .register(meterRegistry);
+
+        running = true;
+        thread = new Thread(this::run, "outbox-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Outbox dispatcher started with batch size {} and consumers {}", batchSize,
+                consumers.stream().map(OutboxConsumer::name).toList());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    private void run() {
+        long backoffMillis = 0;
+        while (running) {
+            try {
+                if (backoffMillis > 0) {
+                    Thread.sleep(backoffMillis);
+                }
+                int delivered = dispatchBatch();
+                backoffMillis = 0;
+                if (delivered < batchSize) {
+                    // Caught up: wait for the next commit or poll, then coalesce the wake-ups that piled up
+                    wakeUps.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failures.increment();
+                backoffMillis = Math.min(maxBackoffMillis, Math.max(100, backoffMillis * 2));
+                log.error("Outbox dispatch failed, retrying in {} ms: {}", backoffMillis, e.getMessage(), e);
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> batch;
+        try {
+            batch = transactionTemplate.execute(tx -> {
+                List<OutboxEvent> events = outboxEventRepository.lockNextBatch(PageRequest.of(0, batchSize));
+                if (!events.isEmpty()) {
+                    deliver(events);
+                    outboxEventRepository.deleteByIds(events.stream().map(OutboxEvent::getId).toList());
+                }
+                return events;
+            });
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox batch failed, delivering its events one at a time: {}", e.getMessage());
+            return dispatchOneByOne();
+        }
+        recordDelivered(batch);
+        return batch.size();
+    }
+
+    // Delivers up to the failing event, then counts the failure against it; throws (to back off) unless it was parked
+    private int dispatchOneByOne() {
+        List<Long> ids = transactionTemplate.execute(tx -> outboxEventRepository.lockNextBatch(PageRequest.of(0, batchSize))
+                .stream().map(OutboxEvent::getId).toList());
+        int delivered = 0;
+        for (Long id : ids) {
+            try {
+                OutboxEvent event = transactionTemplate.execute(tx -> {
+                    OutboxEvent locked = outboxEventRepository.lockById(id).orElse(null);
+                    if (locked != null) {
+                        deliver(List.of(locked));
+                        outboxEventRepository.deleteByIds(List.of(id));
+                    }
+                    return locked;
+                });
+                if (event != null) {
+                    recordDelivered(List.of(event));
+                    delivered++;
+                }
+            } catch (RuntimeException e) {
+                if (!recordFailure(id, e)) {
+                    throw e;
+                }
+            }
+        }
+        return delivered;
+    }
+
+    // Returns true if the event has used up its attempts and was parked
+    private boolean recordFailure(Long id, RuntimeException cause) {
+        Boolean wasParked = transactionTemplate.execute(tx -> {
+            outboxEventRepository.incrementAttempts(id);
+            OutboxEvent event = outboxEventRepository.findById(id).orElse(null);
+            if (event == null || event.getAttempts() < maxAttempts) {
+                return false;
+            }
+            String error = String.valueOf(cause.getMessage());
+            deadLetterRepository.park(id, error.length() > 1000 ? error.substring(0, 1000) : error, Instant.now());
+            outboxEventRepository.deleteByIds(List.of(id));
+            log.error("Outbox event {} ({}) failed {} times, parked in outbox_dead_letter", id, event.getType(), event.getAttempts());
+            return true;
+        });
+        if (Boolean.TRUE.equals(wasParked)) {
+            parked.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void deliver(List<OutboxEvent> events) {
+        List<OutboxEvent> readOnly = Collections.unmodifiableList(events);
+        for (OutboxConsumer consumer : consumers) {
+            consumer.accept(readOnly);
+        }
+    }
+
+    private void recordDelivered(List<OutboxEvent> events) {
+        Instant now = Instant.now();
+        for (OutboxEvent event : events) {
+            deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        dispatched.increment(events.size());
+    }
+
+    private double oldestEventAgeSeconds() {
+        Instant oldest = outboxEventRepository.findOldestCreatedAt();
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,115 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.Card;
+import balekai.designpatterns.model.OutboxEvent;
+import balekai.designpatterns.model.TrelloList;
+import balekai.designpatterns.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends board, list and card changes to the transactional outbox. Must be called inside
+ * the transaction that makes the change, so the event exists if and only if the change commits;
+ * the dispatcher is woken as soon as that transaction commits.
+ *
+ * Nothing is written unless {@code outbox.enabled} is set, which needs an OutboxConsumer to deliver to.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void card(String type, Card card) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("cardId", card.getId());
+        payload.put("listId", card.getList() != null ? card.getList().getId() : null);
+        payload.put("boardId", card.getList() != null && card.getList().getBoard() != null ? card.getList().getBoard().getId() : null);
+        payload.put("title", card.getTitle());
+        payload.put("label", card.getLabel());
+        payload.put("dueDate", card.getDueDate());
+        payload.put("currentState", card.getCurrentState());
+        payload.put("assignedUserId", card.getAssignedUser() != null ? card.getAssignedUser().getId() : null);
+        append("card", card.getId(), type, payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void list(String type, TrelloList list) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("listId", list.getId());
+        payload.put("boardId", list.getBoard() != null ? list.getBoard().getId() : null);
+        payload.put("name", list.getName());
+        append("list", list.getId(), type, payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void board(String type, Board board) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("boardId", board.getId());
+        payload.put("name", board.getName());
+        payload.put("ownerId", board.getOwnerId());
+        payload.put("isPrivate", board.isAPrivate());
+        append("board", board.getId(), type, payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardsArchived(Long boardId, List<Long> cardIds) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("boardId", boardId);
+        payload.put("cardIds", cardIds);
+        append("board", boardId, "board.cards-archived", payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void boardMember(String type, Long boardId, String userId, String role) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("boardId", boardId);
+        payload.put("userId", userId);
+        payload.put("role", role);
+        append("board", boardId, type, payload);
+    }
+
+    private void append(String aggregateType, Long aggregateId, String type, Map<String, Object> payload) {
+        if (!enabled) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox event " + type, e);
+        }
+        outboxEventRepository.save(new OutboxEvent(null, aggregateType, aggregateId, type, json, Instant.now(), 0));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.exception.ServiceOverloadedException;
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a dedicated, core-sized pool instead of Tomcat request threads,
+ * so a login burst can't starve cheap reads of CPU. The queue is bounded: when it's
+ * full the request is shed with a {@link ServiceOverloadedException} (503 + Retry-After).
+ *
+ * The BCrypt cost is calibrated once at startup against a target latency, and hashes
+ * with a different cost are upgraded in the background on the next successful login.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class PasswordHashingService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.password.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${security.password.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${security.password.bcrypt-target-ms:100}")
+    private long targetMillis;
+
+    @Value("${security.password.bcrypt-min-cost:8}")
+    private int minCost;
+
+    @Value("${security.password.bcrypt-max-cost:14}")
+    private int maxCost;
+
+    @Value("${security.password.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private volatile int cost;
+    private Counter shedCounter;
+
+    @PostConstruct
+    public void init() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hash", Tags.empty()).bindTo(meterRegistry);
+        shedCounter = meterRegistry.counter("password.hash.shed");
+        cost = calibrateCost();
+        meterRegistry.gauge("password.hash.bcrypt.cost", this, PasswordHashingService::getCost);
+        log.info("Password hashing pool started with {} threads, queue {}, BCrypt cost {}", threads, queueCapacity, cost);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public String hash(String rawPassword) {
+        return submit(() -> BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost)));
+    }
+
+    /**
+     * Returns false for accounts without a BCrypt hash (e.g. Firebase users with an empty password).
+     */
+    public boolean verify(String rawPassword, String hashedPassword) {
+        if (rawPassword == null || !isBcryptHash(hashedPassword)) {
+            return false;
+        }
+        return submit(() -> BCrypt.checkpw(rawPassword, hashedPassword));
+    }
+
+    /**
+     * Rehashes the user's password at the current cost if the stored hash uses a different one.
+     * Runs in the background and is skipped when the pool is busy; the next login retries it.
+     * Only replaces the hash that was verified, so a concurrent password change wins.
+     */
+    public void upgradeHashIfNeeded(User user, String rawPassword) {
+        String storedHash = user.getPassword();
+        if (!isBcryptHash(storedHash) || costOf(storedHash) == cost) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                String upgraded = BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost));
+                if (userRepository.updatePassword(user.getId(), storedHash, upgraded) == 1) {
+                    log.info("Rehashed password for user {} from cost {} to {}", user.getId(), costOf(storedHash), cost);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipping password rehash for user {}: hashing pool is busy", user.getId());
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            shedCounter.increment();
+            log.warn("Password hashing pool saturated ({} queued), shedding request", executor.getQueue().size());
+            throw new ServiceOverloadedException("Server is busy, please retry shortly", retryAfterSeconds);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Picks the highest cost whose estimated hashing time stays within the target.
+     * Each cost step doubles the work, so one measurement at the minimum cost is enough.
+     */
+    private int calibrateCost() {
+        String salt = BCrypt.gensalt(minCost);
+        BCrypt.hashpw("calibration", salt); // warm-up
+        long[] samples = new long[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double measuredMillis = Math.max(samples[1] / 1_000_000.0, 0.001);
+
+        int calibrated = minCost;
+        while (calibrated < maxCost && measuredMillis * (1L << (calibrated + 1 - minCost)) <= targetMillis) {
+            calibrated++;
+        }
+        log.info("BCrypt calibration: cost {} took {} ms, target {} ms -> using cost {}",
+                minCost, String.format("%.1f", measuredMillis), targetMillis, calibrated);
+        return calibrated;
+    }
+
+    private static boolean isBcryptHash(String hash) {
+        return hash != null && hash.length() == 60 && hash.startsWith("$2");
+    }
+
+    private static int costOf(String hash) {
+        return Integer.parseInt(hash.substring(4, 6));
+    }
+}
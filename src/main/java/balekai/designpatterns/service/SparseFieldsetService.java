@@ -0,0 +1,278 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.response.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders boards and cards restricted to a {@link FieldSelection}.
+ *
+ * Unlike the entity graph returned by the default endpoints, only the selected columns are
+ * queried: cards are read with a single projection query per request, and comments/state
+ * history are only touched when they are explicitly selected. {@code id} is always returned.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Transactional(readOnly = true)
+public class SparseFieldsetService {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    // Internal key used to group cards under their list; removed before serialization
+    private static final String LIST_ID_KEY = "__listId";
+
+    // Selector -> JPQL path for the scalar card columns
+    private static final Map<String, String> CARD_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, String> ASSIGNEE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CARD_COLUMNS.put("title", "c.title");
+        CARD_COLUMNS.put("description", "c.description");
+        CARD_COLUMNS.put("label", "c.label");
+        CARD_COLUMNS.put("dueDate", "c.dueDate");
+        CARD_COLUMNS.put("createdAt", "c.createdAt");
+        CARD_COLUMNS.put("currentState", "c.currentState");
+        CARD_COLUMNS.put("version", "c.version");
+
+        ASSIGNEE_COLUMNS.put("id", "u.id");
+        ASSIGNEE_COLUMNS.put("name", "u.name");
+        ASSIGNEE_COLUMNS.put("email", "u.email");
+    }
+
+    // Selector -> native query for an element collection of the given card ids
+    private static final Map<String, String> ELEMENT_SQL = Map.of(
+            "comments", "SELECT card_id, comments FROM card_comments WHERE card_id IN (:ids) ORDER BY card_id, ctid",
+            "stateHistory", "SELECT card_id, state_history FROM card_state_history WHERE card_id IN (:ids) ORDER BY card_id, ctid");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Map<String, Object> renderBoard(Board board, FieldSelection selection) {
+        return renderBoards(List.of(board), selection).get(0);
+    }
+
+    public List<Map<String, Object>> renderBoards(List<Board> boards, FieldSelection selection) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (boards.isEmpty()) {
+            return result;
+        }
+
+        boolean withLists = selection.has("lists") || selection.has("cards");
+        FieldSelection listSelection = selection.get("lists");
+        FieldSelection cardSelection = listSelection.has("cards") ? listSelection.get("cards") : selection.get("cards");
+        boolean withCards = selection.has("cards") || listSelection.has("cards");
+
+        Map<Long, List<Map<String, Object>>> listsByBoard = new HashMap<>();
+        if (withLists) {
+            List<Long> boardIds = boards.stream().map(Board::getId).toList();
+            List<Map<String, Object>> lists = loadLists(boardIds, listSelection, listsByBoard);
+            if (withCards && !lists.isEmpty()) {
+                attachCards(boardIds, lists, cardSelection);
+            }
+        }
+
+        for (Board board : boards) {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", board.getId());
+            for (String field : selection.names()) {
+                switch (field) {
+                    case "id", "lists", "cards" -> { }
+                    case "name" -> dto.put("name", board.getName());
+                    case "ownerId" -> dto.put("ownerId", board.getOwnerId());
+                    case "ownerName" -> dto.put("ownerName", board.getOwnerName());
+                    case "visibility" -> dto.put("visibility", board.getVisibility());
+                    case "isPrivate" -> dto.put("isPrivate", board.isAPrivate());
+                    case "version" -> dto.put("version", board.getVersion());
+                    default -> throw new IllegalArgumentException("Unknown board field: " + field);
+                }
+            }
+            if (withLists) {
+                dto.put("lists", listsByBoard.getOrDefault(board.getId(), new ArrayList<>()));
+            }
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * Cards visible to {@code userId}: those on public boards, on the user's own or shared boards,
+     * or not attached to a board at all.
+     */
+    public List<Map<String, Object>> renderAccessibleCards(String userId, FieldSelection selection) {
+        return loadCards("b.id IS NULL OR b.aPrivate = false OR b.ownerId = :userId"
+                        + " OR EXISTS (SELECT 1 FROM BoardMember m WHERE m.userId = :userId AND m.boardId = b.id)",
+                Map.of("userId", userId), selection, false);
+    }
+
+    public Map<String, Object> renderCard(Long cardId, FieldSelection selection) {
+        List<Map<String, Object>> cards = loadCards("c.id = :cardId", Map.of("cardId", cardId), selection, false);
+        if (cards.isEmpty()) {
+            throw new RuntimeException("Card not found with id: " + cardId);
+        }
+        return cards.get(0);
+    }
+
+    private List<Map<String, Object>> loadLists(List<Long> boardIds, FieldSelection selection,
+                                                Map<Long, List<Map<String, Object>>> listsByBoard) {
+        for (String field : selection.names()) {
+            if (!field.equals("id") && !field.equals("name") && !field.equals("cards")) {
+                throw new IllegalArgumentException("Unknown list field: " + field);
+            }
+        }
+        // Lists selected without explicit scalar fields keep their name so the board stays readable
+        boolean withName = selection.has("name") || !selection.has("id");
+
+        List<Map<String, Object>> lists = new ArrayList<>();
+        for (List<Long> chunk : chunk(boardIds)) {
+            List<Object[]> rows = entityManager.createQuery(
+                            "SELECT l.id, l.board.id, l.name FROM TrelloList l WHERE l.board.id IN :boardIds ORDER BY l.id",
+                            Object[].class)
+                    .setParameter("boardIds", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                Map<String, Object> dto = new LinkedHashMap<>();
+                dto.put("id", row[0]);
+                if (withName) {
+                    dto.put("name", row[2]);
+                }
+                listsByBoard.computeIfAbsent((Long) row[1], key -> new ArrayList<>()).add(dto);
+                lists.add(dto);
+            }
+        }
+        return lists;
+    }
+
+    private void attachCards(List<Long> boardIds, List<Map<String, Object>> lists, FieldSelection selection) {
+        Map<Long, List<Map<String, Object>>> cardsByList = new HashMap<>();
+        for (List<Long> chunk : chunk(boardIds)) {
+            for (Map<String, Object> card : loadCards("l.board.id IN :boardIds", Map.of("boardIds", chunk), selection, true)) {
+                Long listId = (Long) card.remove(LIST_ID_KEY);
+                cardsByList.computeIfAbsent(listId, key -> new ArrayList<>()).add(card);
+            }
+        }
+        for (Map<String, Object> list : lists) {
+            list.put("cards", cardsByList.getOrDefault((Long) list.get("id"), new ArrayList<>()));
+        }
+    }
+
+    private List<Map<String, Object>> loadCards(String where, Map<String, Object> params,
+                                                FieldSelection selection, boolean keepListId) {
+        // A bare "cards" selects every scalar column
+        List<String> columns = new ArrayList<>(selection.isEmpty() ? CARD_COLUMNS.keySet() : List.of());
+        List<String> assigneeColumns = new ArrayList<>();
+        boolean withComments = false;
+        boolean withHistory = false;
+
+        for (String field : selection.names()) {
+            switch (field) {
+                case "id" -> { }
+                case "comments" -> withComments = true;
+                case "stateHistory" -> withHistory = true;
+                case "assignee", "assignedUser" -> {
+                    FieldSelection assignee = selection.get(field);
+                    if (assignee.isEmpty()) {
+                        assigneeColumns.addAll(ASSIGNEE_COLUMNS.keySet());
+                    }
+                    for (String sub : assignee.names()) {
+                        if (!ASSIGNEE_COLUMNS.containsKey(sub)) {
+                            throw new IllegalArgumentException("Unknown assignee field: " + sub);
+                        }
+                        if (!assigneeColumns.contains(sub)) {
+                            assigneeColumns.add(sub);
+                        }
+                    }
+                }
+                default -> {
+                    if (!CARD_COLUMNS.containsKey(field)) {
+                        throw new IllegalArgumentException("Unknown card field: " + field);
+                    }
+                    columns.add(field);
+                }
+            }
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT c.id, l.id, u.id");
+        columns.forEach(column -> jpql.append(", ").append(CARD_COLUMNS.get(column)));
+        assigneeColumns.forEach(column -> jpql.append(", ").append(ASSIGNEE_COLUMNS.get(column)));
+        jpql.append(" FROM Card c LEFT JOIN c.list l LEFT JOIN l.board b LEFT JOIN c.assignedUser u WHERE ")
+                .append(where)
+                .append(" ORDER BY c.id");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        params.forEach(query::setParameter);
+
+        List<Map<String, Object>> cards = new ArrayList<>();
+        Map<Long, Map<String, Object>> cardsById = new LinkedHashMap<>();
+        for (Object[] row : query.getResultList()) {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", row[0]);
+            int index = 3;
+            for (String column : columns) {
+                dto.put(column, row[index++]);
+            }
+            if (!assigneeColumns.isEmpty()) {
+                if (row[2] == null) {
+                    dto.put("assignedUser", null);
+                } else {
+                    Map<String, Object> assignee = new LinkedHashMap<>();
+                    for (String column : assigneeColumns) {
+                        assignee.put(column, row[index++]);
+                    }
+                    dto.put("assignedUser", assignee);
+                }
+            }
+            if (keepListId) {
+                dto.put(LIST_ID_KEY, row[1]);
+            }
+            cards.add(dto);
+            cardsById.put((Long) row[0], dto);
+        }
+
+        if (withComments) {
+            attachElements(cardsById, "comments");
+        }
+        if (withHistory) {
+            attachElements(cardsById, "stateHistory");
+        }
+        return cards;
+    }
+
+    // The element tables have no order column, so they're read in physical (ctid) order,
+    // the order Hibernate loads the entity collections in (same as the board export).
+    private void attachElements(Map<Long, Map<String, Object>> cardsById, String collection) {
+        cardsById.values().forEach(card -> card.put(collection, new ArrayList<String>()));
+        String elementSql = ELEMENT_SQL.get(collection);
+        for (List<Long> chunk : chunk(cardsById.keySet())) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(elementSql)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                @SuppressWarnings("unchecked")
+                List<String> values = (List<String>) cardsById.get(((Number) row[0]).longValue()).get(collection);
+                values.add((String) row[1]);
+            }
+        }
+    }
+
+    private static List<List<Long>> chunk(Collection<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int i = 0; i < all.size(); i += IN_CLAUSE_CHUNK) {
+            chunks.add(all.subList(i, Math.min(i + IN_CLAUSE_CHUNK, all.size())));
+        }
+        return chunks;
+    }
+}
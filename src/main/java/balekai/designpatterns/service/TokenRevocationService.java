@@ -0,0 +1,141 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.RevokedToken;
+import balekai.designpatterns.repository.RevokedTokenRepository;
+import balekai.designpatterns.security.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks revoked sessions (sid) and refresh token rotation within each session.
+ *
+ * The revoked_token table is the source of truth for revoked sessions. In memory, a Bloom
+ * filter holds every session id that is still revoked and an exact map holds the ones revoked
+ * recently, so the common "not revoked" answer never touches the database; only a Bloom hit on
+ * an older revocation (or a false positive) falls back to a primary-key lookup. The filter is
+ * rebuilt from the table at startup and after expired rows are purged, and picks up revocations
+ * made by other nodes on a short polling interval.
+ *
+ * Refresh tokens are tracked separately, by the highest rotation counter (gen) used per session,
+ * so a normal refresh is answered from memory and never grows the filter; the table is only
+ * written on logout or when a reused token ends its session. The counters are per node and start
+ * empty after a restart, so a reuse is only caught by the node that served the previous refresh.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class TokenRevocationService {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${security.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${security.revocation.recent-window-ms:900000}")
+    private long recentWindowMillis;
+
+    private volatile BloomFilter filter;
+    private volatile Instant lastSync;
+    private final Map<String, Instant> recent = new ConcurrentHashMap<>();
+    private final Map<String, Rotation> rotations = new ConcurrentHashMap<>();
+
+    // Highest refresh token generation used in a session, kept until that token would have expired
+    private record Rotation(long generation, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    public boolean isRevoked(String id) {
+        if (!filter.mightContain(id)) {
+            return false;
+        }
+        if (recent.containsKey(id)) {
+            return true;
+        }
+        return revokedTokenRepository.existsById(id);
+    }
+
+    /**
+     * Accepts the refresh token of {@code generation} in {@code sessionId} unless that generation
+     * or a later one has already been used.
+     *
+     * @return false if the token was already used, e.g. a refresh token presented a second time
+     */
+    public boolean consumeRefresh(String sessionId, long generation, Instant expiresAt) {
+        boolean[] accepted = {false};
+        rotations.compute(sessionId, (sid, current) -> {
+            if (current != null && current.generation() >= generation) {
+                return current;
+            }
+            accepted[0] = true;
+            return new Rotation(generation, expiresAt);
+        });
+        return accepted[0];
+    }
+
+    /**
+     * Revokes {@code sessionId}, invalidating its refresh token and any access tokens still in flight.
+     */
+    public void revokeSession(String sessionId, Instant expiresAt) {
+        Instant now = Instant.now();
+        revokedTokenRepository.insertIfAbsent(sessionId, expiresAt, now);
+        remember(sessionId, now);
+        rotations.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.sync-ms:30000}")
+    public void syncFromDatabase() {
+        // Overlap the previous window slightly so commits racing the last poll aren't missed
+        Instant since = lastSync.minusSeconds(5);
+        lastSync = Instant.now();
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfter(since)) {
+            remember(token.getId(), token.getRevokedAt());
+        }
+        Instant cutoff = Instant.now().minusMillis(recentWindowMillis);
+        recent.values().removeIf(revokedAt -> revokedAt.isBefore(cutoff));
+        Instant now = Instant.now();
+        rotations.values().removeIf(rotation -> rotation.expiresAt().isBefore(now));
+    }
+
+    @Scheduled(cron = "${security.revocation.purge-cron:0 17 * * * *}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+        rebuild();
+    }
+
+    private void remember(String id, Instant revokedAt) {
+        recent.put(id, revokedAt);
+        filter.put(id);
+    }
+
+    private void rebuild() {
+        Instant now = Instant.now();
+        List<String> ids = revokedTokenRepository.findActiveIds(now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, ids.size() * 2), 0.01);
+        ids.forEach(rebuilt::put);
+        filter = rebuilt;
+        if (lastSync == null) {
+            lastSync = now;
+        }
+        // Recent revocations, including any written into the previous filter while this one was built
+        recent.keySet().forEach(rebuilt::put);
+        log.info("Token revocation filter rebuilt with {} entries", ids.size());
+    }
+}
@@ -3,11 +3,13 @@ package balekai.designpatterns.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import balekai.designpatterns.model.TrelloList;
 import balekai.designpatterns.model.Board;
 import balekai.designpatterns.repository.TrelloListRepository;
 import balekai.designpatterns.repository.BoardRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -20,6 +22,12 @@ public class TrelloListService {
     @Autowired
     private BoardRepository boardRepository;
 
+    @Autowired
+    private BoardCounterService boardCounterService;
+
+    @Autowired
+    private CardAnalyticsService cardAnalyticsService;
+
     public TrelloList createList(Long boardId, TrelloList list) {
         Board board = boardRepository.findById(boardId)
                 .orElseThrow(() -> new RuntimeException("Board not found"));
@@ -44,7 +52,15 @@ public class TrelloListService {
     }
 
 
+    @Transactional
     public void deleteList(Long id) {
-        listRepository.deleteById(id);
+        TrelloList list = getList(id);
+        if (list.getBoard() != null) {
+            cardAnalyticsService.listDeleted(list.getBoard().getId(), id, LocalDateTime.now());
+        }
+        listRepository.delete(list);
+        if (list.getBoard() != null) {
+            boardCounterService.invalidate(list.getBoard().getId());
+        }
     }
 }
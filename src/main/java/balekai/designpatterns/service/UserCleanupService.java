@@ -0,0 +1,195 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.repository.ArchivedCardRepository;
+import balekai.designpatterns.repository.BoardAnalyticsRepository;
+import balekai.designpatterns.repository.BoardCounterRepository;
+import balekai.designpatterns.repository.BoardMemberRepository;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.CardRepository;
+import balekai.designpatterns.repository.FirebaseAccountLinkRepository;
+import balekai.designpatterns.repository.TrelloListRepository;
+import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.response.UserCleanupStatus;
+import balekai.designpatterns.response.UserCleanupStatus.State;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deletes test accounts (see {@link UserRepository#findTestUserIds}) in the background.
+ *
+ * Each batch selects at most {@code cleanup.batch-size} matching user ids and, in one
+ * transaction, removes the cards, lists and boards they own, unassigns them from other
+ * cards and deletes the users, all with set-based statements. Only the ids of the current
+ * batch are held in memory. One job runs at a time; progress is published after every batch.
+ *
+ * Only the accounts listed in {@code cleanup.admin-emails} may start a job or read its status;
+ * with the list empty (the default) the cleanup is disabled.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+@Slf4j
+public class UserCleanupService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TrelloListRepository trelloListRepository;
+
+    @Autowired
+    private BoardCounterRepository boardCounterRepository;
+
+    @Autowired
+    private BoardAnalyticsRepository boardAnalyticsRepository;
+
+    @Autowired
+    private ArchivedCardRepository archivedCardRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private BoardMemberRepository boardMemberRepository;
+
+    @Autowired
+    private FirebaseAccountLinkRepository firebaseAccountLinkRepository;
+
+    @Autowired
+    private FirebaseAuthService firebaseAuthService;
+
+    @Autowired
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cleanup.admin-emails:}")
+    private Set<String> adminEmails;
+
+    private final AtomicReference<UserCleanupStatus> status = new AtomicReference<>(UserCleanupStatus.idle());
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean isAdmin(String email) {
+        return email != null && adminEmails.contains(email);
+    }
+
+    public UserCleanupStatus getStatus() {
+        return status.get();
+    }
+
+    /**
+     * Starts a cleanup unless one is already running.
+     *
+     * @return the status of the started job, or of the one already running
+     */
+    public UserCleanupStatus start() {
+        UserCleanupStatus current = status.get();
+        if (current.state() == State.RUNNING) {
+            return current;
+        }
+        UserCleanupStatus started = new UserCleanupStatus(UUID.randomUUID().toString().substring(0, 8), State.RUNNING,
+                Instant.now(), null, 0, 0, 0, 0, 0, 0, null);
+        if (!status.compareAndSet(current, started)) {
+            return status.get();
+        }
+        executor.execute(this::run);
+        return started;
+    }
+
+    private void run() {
+        UserCleanupStatus progress = status.get();
+        log.info("[{}] CLEANUP_START - Removing test users in batches of {}", progress.jobId(), batchSize);
+        try {
+            List<String> userIds;
+            while (!(userIds = userRepository.findTestUserIds(PageRequest.of(0, batchSize))).isEmpty()) {
+                progress = deleteBatch(progress, userIds);
+                status.set(progress);
+                userIds.forEach(firebaseAuthService::evictUser);
+                userDirectoryIndex.removeAll(userIds);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Cleanup interrupted");
+                }
+            }
+            status.set(finish(progress, State.COMPLETED, null));
+            log.info("[{}] CLEANUP_SUCCESS - Deleted {} users, {} boards, {} cards in {} batches", progress.jobId(),
+                    progress.usersDeleted(), progress.boardsDeleted(), progress.cardsDeleted(), progress.batches());
+        } catch (Exception e) {
+            status.set(finish(progress, State.FAILED, e.getMessage()));
+            log.error("[{}] CLEANUP_FAILED - After {} batches: {}", progress.jobId(), progress.batches(), e.getMessage(), e);
+        }
+    }
+
+    private UserCleanupStatus deleteBatch(UserCleanupStatus progress, List<String> userIds) {
+        return transactionTemplate.execute(tx -> {
+            cardRepository.deleteCommentsByBoardOwnerIds(userIds);
+            cardRepository.deleteStateHistoryByBoardOwnerIds(userIds);
+            int cards = cardRepository.deleteByBoardOwnerIds(userIds);
+            int lists = trelloListRepository.deleteByBoardOwnerIds(userIds);
+            boardCounterRepository.deleteByBoardOwnerIds(userIds);
+            boardAnalyticsRepository.deleteBucketsByBoardOwnerIds(userIds);
+            boardAnalyticsRepository.deleteFlowByBoardOwnerIds(userIds);
+            archivedCardRepository.deleteCommentsByBoardOwnerIds(userIds);
+            archivedCardRepository.deleteStateHistoryByBoardOwnerIds(userIds);
+            archivedCardRepository.deleteByBoardOwnerIds(userIds);
+            boardMemberRepository.deleteByUserIdsOrBoardOwnerIds(userIds);
+            int boards = boardRepository.deleteByOwnerIds(userIds);
+            // Other boards lose assignments in bulk; they're recounted on their next stats read
+            boardRepository.invalidateCountersByAssignees(userIds);
+            int unassigned = cardRepository.unassignUsers(userIds);
+            firebaseAccountLinkRepository.deleteByUserIds(userIds);
+            int users = userRepository.deleteByIds(userIds);
+            return new UserCleanupStatus(progress.jobId(), State.RUNNING, progress.startedAt(), null,
+                    progress.batches() + 1,
+                    progress.usersDeleted() + users,
+                    progress.boardsDeleted() + boards,
+                    progress.listsDeleted() + lists,
+                    progress.cardsDeleted() + cards,
+                    progress.cardsUnassigned() + unassigned,
+                    null);
+        });
+    }
+
+    private static UserCleanupStatus finish(UserCleanupStatus progress, State state, String error) {
+        return new UserCleanupStatus(progress.jobId(), state, progress.startedAt(), Instant.now(), progress.batches(),
+                progress.usersDeleted(), progress.boardsDeleted(), progress.listsDeleted(), progress.cardsDeleted(),
+                progress.cardsUnassigned(), error);
+    }
+}
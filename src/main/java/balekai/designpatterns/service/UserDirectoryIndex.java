@@ -0,0 +1,177 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over user names and emails for assignee autocomplete.
+ *
+ * Every lowercased email, full name and name word is a key in a sorted skip list
+ * ({@code term + '\0' + userId}), so a prefix lookup is a range scan that stops after
+ * {@code limit} users. Kept current by {@link UserDirectoryListener} on insert/update/delete
+ * and rebuilt from the database periodically to pick up changes made by other nodes or by
+ * bulk statements. Changes made while a rebuild is reading the database are applied again
+ * to the rebuilt index, so they aren't lost when it is swapped in.
+ */
+@Component
+@Profile("!test") // Don't load this component in test profile
+@Slf4j
+public class UserDirectoryIndex {
+
+    public record Entry(String id, String name, String email) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private volatile ConcurrentNavigableMap<String, Entry> terms = new ConcurrentSkipListMap<>();
+    private volatile Map<String, Entry> usersById = new ConcurrentHashMap<>();
+    private volatile Map<String, String> idsByEmail = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private boolean rebuilding;
+    private final List<Runnable> changesDuringRebuild = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${users.directory.rebuild-ms:600000}", initialDelayString = "${users.directory.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            changesDuringRebuild.clear();
+        }
+        try {
+            rebuildFromDatabase();
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                changesDuringRebuild.clear();
+            }
+        }
+    }
+
+    private void rebuildFromDatabase() {
+        ConcurrentNavigableMap<String, Entry> rebuiltTerms = new ConcurrentSkipListMap<>();
+        Map<String, Entry> rebuiltUsers = new ConcurrentHashMap<>();
+        Map<String, String> rebuiltEmails = new ConcurrentHashMap<>();
+        for (Object[] row : userRepository.findDirectoryEntries()) {
+            Entry entry = new Entry((String) row[0], (String) row[1], (String) row[2]);
+            rebuiltUsers.put(entry.id(), entry);
+            if (entry.email() != null) {
+                rebuiltEmails.put(normalize(entry.email()), entry.id());
+            }
+            termsOf(entry).forEach(term -> rebuiltTerms.put(term, entry));
+        }
+        int replayed;
+        synchronized (this) {
+            terms = rebuiltTerms;
+            usersById = rebuiltUsers;
+            idsByEmail = rebuiltEmails;
+            // The scan may have read the database before these were committed
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach(Runnable::run);
+        }
+        log.info("User directory index rebuilt with {} users, {} concurrent changes reapplied", rebuiltUsers.size(), replayed);
+    }
+
+    public synchronized void put(User user) {
+        Entry entry = new Entry(user.getId(), user.getName(), user.getEmail());
+        if (rebuilding) {
+            changesDuringRebuild.add(() -> apply(entry));
+        }
+        apply(entry);
+    }
+
+    public synchronized void remove(String userId) {
+        if (rebuilding) {
+            changesDuringRebuild.add(() -> unindex(userId));
+        }
+        unindex(userId);
+    }
+
+    private void apply(Entry entry) {
+        unindex(entry.id());
+        usersById.put(entry.id(), entry);
+        if (entry.email() != null) {
+            idsByEmail.put(normalize(entry.email()), entry.id());
+        }
+        termsOf(entry).forEach(term -> terms.put(term, entry));
+    }
+
+    private void unindex(String userId) {
+        Entry previous = usersById.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        if (previous.email() != null) {
+            idsByEmail.remove(normalize(previous.email()), userId);
+        }
+        termsOf(previous).forEach(terms::remove);
+    }
+
+    public void removeAll(Collection<String> userIds) {
+        userIds.forEach(this::remove);
+    }
+
+    public boolean containsEmail(String email) {
+        return email != null && idsByEmail.containsKey(normalize(email));
+    }
+
+    /**
+     * Users with a name, name word or email starting with {@code prefix} (case-insensitive),
+     * in key order, at most {@code limit} of them.
+     */
+    public List<Entry> search(String prefix, int limit) {
+        String from = normalize(prefix);
+        if (from.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        Map<String, Entry> matches = new LinkedHashMap<>();
+        for (Entry entry : terms.subMap(from, true, from + Character.MAX_VALUE, true).values()) {
+            matches.putIfAbsent(entry.id(), entry);
+            if (matches.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private static List<String> termsOf(Entry entry) {
+        List<String> terms = new ArrayList<>();
+        if (entry.email() != null) {
+            terms.add(normalize(entry.email()) + '\0' + entry.id());
+        }
+        if (entry.name() != null) {
+            String name = normalize(entry.name());
+            terms.add(name + '\0' + entry.id());
+            String[] words = name.split("\\s+");
+            for (int i = 1; i < words.length; i++) {
+                terms.add(words[i] + '\0' + entry.id());
+            }
+        }
+        return terms;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
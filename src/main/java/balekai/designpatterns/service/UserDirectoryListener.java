@@ -0,0 +1,51 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link UserDirectoryIndex} in step with user writes.
+ * The callbacks run at flush, so the index is only updated once the transaction commits;
+ * a rolled-back write never becomes searchable.
+ * Bulk JPQL/native statements bypass it; callers of those update the index themselves.
+ */
+@Component
+public class UserDirectoryListener {
+
+    private final ObjectProvider<UserDirectoryIndex> index;
+
+    public UserDirectoryListener(ObjectProvider<UserDirectoryIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        afterCommit(() -> index.ifAvailable(directory -> directory.put(user)));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        String userId = user.getId();
+        afterCommit(() -> index.ifAvailable(directory -> directory.remove(userId)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.exception.VersionConflictException;
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.Card;
+import balekai.designpatterns.model.TrelloList;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.Hibernate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Turns a failed optimistic-lock write (another request committed the same board, list or card
+ * first) into a {@link VersionConflictException} carrying the row as it is now. Runs in its own
+ * read-only transaction, after the losing one has rolled back.
+ */
+@Service
+@Profile("!test") // Don't load this service in test profile
+public class VersionConflictService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public VersionConflictException conflict(ObjectOptimisticLockingFailureException ex) {
+        // Hibernate reports the entity by name, not class
+        String entityName = ex.getPersistentClassName();
+        Class<?> type = entityManager.getMetamodel().getEntities().stream()
+                .map(EntityType::getJavaType)
+                .filter(javaType -> javaType.getName().equals(entityName))
+                .findFirst()
+                .orElse(null);
+        Object id = ex.getIdentifier();
+        Object current = type != null && id != null ? entityManager.find(type, id) : null;
+
+        Long version = null;
+        if (current instanceof Card card) {
+            version = card.getVersion();
+        } else if (current instanceof TrelloList list) {
+            version = list.getVersion();
+        } else if (current instanceof Board board) {
+            Hibernate.initialize(board.getLists());
+            version = board.getVersion();
+        }
+        String what = type != null ? type.getSimpleName() : "Resource";
+        String message = current != null
+                ? what + " was modified by another request, retry with version " + version
+                : what + " was modified or deleted by another request";
+        return new VersionConflictException(message, VersionConflictException.CONFLICT, version, current);
+    }
+}
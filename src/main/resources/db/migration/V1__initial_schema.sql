@@ -0,0 +1,56 @@
+-- Tables of the first release, as spring.jpa.hibernate.ddl-auto=update created them.
+-- Databases created before migrations existed are baselined at version 0 and run this too,
+-- so every statement must be a no-op on a schema that already has it.
+
+CREATE TABLE IF NOT EXISTS "user" (
+    id       varchar(255) NOT NULL,
+    email    varchar(255) NOT NULL UNIQUE,
+    name     varchar(255),
+    password varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS board (
+    id         bigserial NOT NULL,
+    name       varchar(255),
+    owner_id   varchar(255),
+    owner_name varchar(255),
+    is_private boolean,
+    visibility varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS trello_list (
+    id       bigserial NOT NULL,
+    name     varchar(255),
+    board_id bigint,
+    PRIMARY KEY (id),
+    CONSTRAINT fkdkvm9o1xk9u01x35nhd9sj1ie FOREIGN KEY (board_id) REFERENCES board
+);
+
+CREATE TABLE IF NOT EXISTS card (
+    id               bigserial NOT NULL,
+    title            varchar(255),
+    description      varchar(255),
+    label            varchar(255),
+    due_date         varchar(255),
+    created_at       timestamp(6),
+    current_state    varchar(255),
+    list_id          bigint,
+    assigned_user_id varchar(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk6w72dxen78kynx9hmlg6ynwr3 FOREIGN KEY (list_id) REFERENCES trello_list,
+    CONSTRAINT fk8qkxhmdgylbaluka76wucg3l2 FOREIGN KEY (assigned_user_id) REFERENCES "user"
+);
+
+CREATE TABLE IF NOT EXISTS card_comments (
+    card_id  bigint NOT NULL,
+    comments varchar(255),
+    CONSTRAINT fkeb9qoowgqs3aggqh5tomupxih FOREIGN KEY (card_id) REFERENCES card
+);
+
+CREATE TABLE IF NOT EXISTS card_state_history (
+    card_id       bigint NOT NULL,
+    state_history varchar(255),
+    CONSTRAINT fkclyj5nt720i424i4qvdo5mhas FOREIGN KEY (card_id) REFERENCES card
+);
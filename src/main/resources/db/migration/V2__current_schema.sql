@@ -0,0 +1,139 @@
+-- Columns and tables added since the first release, up to the switch to Flyway.
+-- Idempotent like V1: databases last started with ddl-auto=update already have some or all of it.
+
+-- Optimistic locking and denormalized counters
+ALTER TABLE board ADD COLUMN IF NOT EXISTS card_count integer DEFAULT 0 NOT NULL;
+ALTER TABLE board ADD COLUMN IF NOT EXISTS assigned_count integer DEFAULT 0 NOT NULL;
+ALTER TABLE board ADD COLUMN IF NOT EXISTS counters_valid boolean DEFAULT false NOT NULL;
+ALTER TABLE board ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+ALTER TABLE trello_list ADD COLUMN IF NOT EXISTS card_count integer DEFAULT 0 NOT NULL;
+ALTER TABLE trello_list ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+ALTER TABLE card ADD COLUMN IF NOT EXISTS state_entered_at timestamp(6);
+ALTER TABLE card ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+-- Board stats
+CREATE TABLE IF NOT EXISTS board_counter (
+    id            bigserial NOT NULL,
+    board_id      bigint NOT NULL,
+    kind          varchar(16) NOT NULL CHECK (kind IN ('STATE', 'DUE')),
+    counter_key   varchar(255) NOT NULL,
+    counter_value bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_board_counter_key UNIQUE (board_id, kind, counter_key)
+);
+
+-- Board analytics rollups
+CREATE TABLE IF NOT EXISTS board_duration_bucket (
+    id            bigserial NOT NULL,
+    board_id      bigint NOT NULL,
+    metric        varchar(16) NOT NULL CHECK (metric IN ('TIME_IN_STATE', 'CYCLE_TIME')),
+    state         varchar(255) NOT NULL,
+    bucket        integer NOT NULL,
+    samples       bigint NOT NULL,
+    total_seconds bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_board_duration_bucket UNIQUE (board_id, metric, state, bucket)
+);
+
+CREATE TABLE IF NOT EXISTS board_flow_delta (
+    id       bigserial NOT NULL,
+    board_id bigint NOT NULL,
+    flow_day date NOT NULL,
+    state    varchar(255) NOT NULL,
+    delta    bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_board_flow_delta UNIQUE (board_id, flow_day, state)
+);
+
+-- Card archive
+CREATE TABLE IF NOT EXISTS archived_card (
+    id               bigint NOT NULL,
+    board_id         bigint NOT NULL,
+    list_id          bigint,
+    list_name        varchar(255),
+    title            varchar(255),
+    description      varchar(255),
+    label            varchar(255),
+    due_date         varchar(255),
+    created_at       timestamp(6),
+    current_state    varchar(255),
+    state_entered_at timestamp(6),
+    assigned_user_id varchar(255),
+    archived_at      timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_archived_card_board_id ON archived_card (board_id, id);
+
+CREATE TABLE IF NOT EXISTS archived_card_comments (
+    card_id bigint NOT NULL,
+    comment varchar(255),
+    CONSTRAINT fk6yfe8wbhjk8mvun35nwwlbd6o FOREIGN KEY (card_id) REFERENCES archived_card
+);
+
+CREATE TABLE IF NOT EXISTS archived_card_state_history (
+    card_id bigint NOT NULL,
+    entry   varchar(255),
+    CONSTRAINT fksyyh102dehsn57w2ygdtbf48e FOREIGN KEY (card_id) REFERENCES archived_card
+);
+
+-- Board sharing
+CREATE TABLE IF NOT EXISTS board_member (
+    id         bigserial NOT NULL,
+    board_id   bigint NOT NULL,
+    user_id    varchar(255) NOT NULL,
+    role       varchar(16) NOT NULL CHECK (role IN ('VIEWER', 'EDITOR', 'ADMIN')),
+    created_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_board_member_user_board UNIQUE (user_id, board_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_board_member_board_id ON board_member (board_id);
+
+-- Authentication
+CREATE TABLE IF NOT EXISTS firebase_account_link (
+    firebase_uid varchar(255) NOT NULL,
+    user_id      varchar(255) NOT NULL,
+    linked_at    timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (firebase_uid)
+);
+
+CREATE INDEX IF NOT EXISTS idx_firebase_account_link_user_id ON firebase_account_link (user_id);
+
+CREATE TABLE IF NOT EXISTS revoked_token (
+    id         varchar(255) NOT NULL,
+    revoked_at timestamp(6) with time zone NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_token_revoked_at ON revoked_token (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_token_expires_at ON revoked_token (expires_at);
+
+-- Idempotency keys
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    id           varchar(255) NOT NULL,
+    request_hash varchar(255) NOT NULL,
+    status       integer NOT NULL,
+    content_type varchar(255),
+    etag         varchar(255),
+    body         bytea,
+    created_at   timestamp(6) with time zone NOT NULL,
+    expires_at   timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_expires_at ON idempotency_record (expires_at);
+
+-- Change outbox
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id             bigserial NOT NULL,
+    aggregate_type varchar(16) NOT NULL,
+    aggregate_id   bigint NOT NULL,
+    event_type     varchar(64) NOT NULL,
+    payload        varchar(4000) NOT NULL,
+    created_at     timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
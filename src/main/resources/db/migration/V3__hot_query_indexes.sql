@@ -0,0 +1,12 @@
+-- PostgreSQL doesn't index foreign keys and ddl-auto never did either, so loading a board's lists,
+-- a list's cards, a user's assigned cards or a card's comments/history scanned the whole table.
+CREATE INDEX IF NOT EXISTS idx_trello_list_board_id ON trello_list (board_id);
+CREATE INDEX IF NOT EXISTS idx_card_list_id ON card (list_id);
+CREATE INDEX IF NOT EXISTS idx_card_assigned_user_id ON card (assigned_user_id);
+CREATE INDEX IF NOT EXISTS idx_card_comments_card_id ON card_comments (card_id);
+CREATE INDEX IF NOT EXISTS idx_card_state_history_card_id ON card_state_history (card_id);
+CREATE INDEX IF NOT EXISTS idx_archived_card_comments_card_id ON archived_card_comments (card_id);
+CREATE INDEX IF NOT EXISTS idx_archived_card_state_history_card_id ON archived_card_state_history (card_id);
+
+-- GET /boards and /boards/me
+CREATE INDEX IF NOT EXISTS idx_board_owner_id ON board (owner_id);
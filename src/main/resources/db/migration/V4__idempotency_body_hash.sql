@@ -0,0 +1,2 @@
+-- Hash of the whole request body, so a retry whose body only matches the fingerprinted prefix is rejected
+ALTER TABLE idempotency_record ADD COLUMN IF NOT EXISTS body_hash varchar(64);
@@ -0,0 +1,15 @@
+-- Failed deliveries are counted per event; an event that keeps failing is parked so later events can flow
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS attempts integer NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS outbox_dead_letter (
+    id             bigint NOT NULL,
+    aggregate_type varchar(16) NOT NULL,
+    aggregate_id   bigint NOT NULL,
+    event_type     varchar(64) NOT NULL,
+    payload        varchar(4000) NOT NULL,
+    created_at     timestamp(6) with time zone NOT NULL,
+    attempts       integer NOT NULL,
+    last_error     varchar(1000),
+    parked_at      timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,110 @@
+package balekai.designpatterns.monitoring;
+
+import balekai.designpatterns.model.Board;
+import balekai.designpatterns.model.Card;
+import balekai.designpatterns.model.TrelloList;
+import balekai.designpatterns.model.User;
+import balekai.designpatterns.repository.BoardRepository;
+import balekai.designpatterns.repository.CardRepository;
+import balekai.designpatterns.repository.TrelloListRepository;
+import balekai.designpatterns.repository.UserRepository;
+import balekai.designpatterns.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fail-fast mode turns an endpoint that goes over its SQL statement budget into a 500,
+ * so N+1 regressions break the build.
+ */
+@SpringBootTest(properties = {
+        "sql.budget.fail-fast=true",
+        "sql.budget.default-max-statements=25"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class SqlBudgetIntegrationTest {
+
+    private static final String EMAIL = "budget@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TrelloListRepository trelloListRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    private Board board;
+
+    @BeforeEach
+    void seed() {
+        cardRepository.deleteAll();
+        trelloListRepository.deleteAll();
+        boardRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = userRepository.save(User.builder().id("budget-owner").name("Budget Owner").email(EMAIL).password("").build());
+        board = new Board();
+        board.setName("Budget");
+        board.setOwnerId(owner.getId());
+        board.setOwnerName(owner.getName());
+        board = boardRepository.save(board);
+
+        TrelloList list = new TrelloList();
+        list.setName("To Do");
+        list.setBoard(board);
+        list = trelloListRepository.save(list);
+
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Card card = new Card();
+            card.setTitle("Card " + i);
+            card.setList(list);
+            cards.add(card);
+        }
+        cardRepository.saveAll(cards);
+    }
+
+    @Test
+    void endpointWithinBudgetSucceeds() throws Exception {
+        // The sparse fieldset reads each level with one query, however many cards the board has
+        mockMvc.perform(get("/boards/" + board.getId()).param("fields", "name,lists(name,cards(title))")
+                        .header("Authorization", bearer()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void nPlusOneEndpointFails() throws Exception {
+        // GET /cards loads each card's comments and state history separately: 2 statements per card
+        mockMvc.perform(get("/cards").header("Authorization", bearer()))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string(containsString("GET /cards exceeded its budget of 25 SQL statements")));
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtService.generateAccessToken(EMAIL);
+    }
+}
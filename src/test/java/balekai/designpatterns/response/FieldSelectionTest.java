@@ -0,0 +1,77 @@
+package balekai.designpatterns.response;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldSelectionTest {
+
+    @Test
+    void parsesNamesAndGroupsInOrder() {
+        FieldSelection selection = FieldSelection.parse("name,lists(id,name),cards(id,title)");
+
+        assertThat(selection.names()).containsExactly("name", "lists", "cards");
+        assertThat(selection.get("name").isEmpty()).isTrue();
+        assertThat(selection.get("lists").names()).containsExactly("id", "name");
+        assertThat(selection.get("cards").names()).containsExactly("id", "title");
+    }
+
+    @Test
+    void dottedPathAndGroupSelectTheSameFields() {
+        FieldSelection dotted = FieldSelection.parse("cards.assignee.name");
+        FieldSelection grouped = FieldSelection.parse("cards(assignee(name))");
+
+        assertThat(dotted.get("cards").get("assignee").names()).containsExactly("name");
+        assertThat(grouped.get("cards").get("assignee").names()).containsExactly("name");
+    }
+
+    @Test
+    void mergesRepeatedNames() {
+        FieldSelection selection = FieldSelection.parse("cards(id),cards.title,cards(assignee.email)");
+
+        assertThat(selection.names()).containsExactly("cards");
+        assertThat(selection.get("cards").names()).containsExactly("id", "title", "assignee");
+        assertThat(selection.get("cards").get("assignee").names()).containsExactly("email");
+    }
+
+    @Test
+    void ignoresWhitespace() {
+        FieldSelection selection = FieldSelection.parse(" name , lists ( id ) ");
+
+        assertThat(selection.names()).containsExactly("name", "lists");
+        assertThat(selection.get("lists").names()).containsExactly("id");
+    }
+
+    @Test
+    void unknownNameHasEmptySelection() {
+        FieldSelection selection = FieldSelection.parse("name");
+
+        assertThat(selection.has("lists")).isFalse();
+        assertThat(selection.get("lists").isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsEmptyExpression() {
+        assertThatThrownBy(() -> FieldSelection.parse(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldSelection.parse("  ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThatThrownBy(() -> FieldSelection.parse("lists(id"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Missing ')'");
+        assertThatThrownBy(() -> FieldSelection.parse("name,,id"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Expected a field name");
+        assertThatThrownBy(() -> FieldSelection.parse("lists()"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Expected a field name");
+        assertThatThrownBy(() -> FieldSelection.parse("name)"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unexpected ')'");
+        assertThatThrownBy(() -> FieldSelection.parse("cards.-title"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package balekai.designpatterns.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketLimiterTest {
+
+    // 16 stripes, so maxKeys = 16 tracks one key per stripe
+    private static final int ONE_KEY_PER_STRIPE = 16;
+
+    @Test
+    void grantsBurstThenReportsWaitUntilNextToken() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60_000, 1_000);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(1));
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 60_000, 1_000);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void refillsAfterThePeriod() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 20, 1_000);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        Thread.sleep(40);
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void fullStripeRejectsNewKeysInsteadOfDroppingThrottledOnes() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 60_000, ONE_KEY_PER_STRIPE);
+        List<String> keys = sameStripeKeys(2);
+
+        assertThat(limiter.tryAcquire(keys.get(0))).isZero();
+        assertThat(limiter.tryAcquire(keys.get(0))).isPositive();
+
+        assertThat(limiter.tryAcquire(keys.get(1))).isPositive();
+        assertThat(limiter.size()).isEqualTo(1);
+        // Still throttled: the new key didn't evict it
+        assertThat(limiter.tryAcquire(keys.get(0))).isPositive();
+    }
+
+    @Test
+    void fullStripeEvictsRefilledBuckets() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 20, ONE_KEY_PER_STRIPE);
+        List<String> keys = sameStripeKeys(2);
+
+        assertThat(limiter.tryAcquire(keys.get(0))).isZero();
+        Thread.sleep(40);
+
+        assertThat(limiter.tryAcquire(keys.get(1))).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new TokenBucketLimiter(0, 1_000, 1_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketLimiter(1, 0, 1_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketLimiter(1, 1_000, 15)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> sameStripeKeys(int count) {
+        List<String> keys = new ArrayList<>();
+        int stripe = stripeOf("key-0");
+        for (int i = 0; keys.size() < count; i++) {
+            if (stripeOf("key-" + i) == stripe) {
+                keys.add("key-" + i);
+            }
+        }
+        return keys;
+    }
+
+    private static int stripeOf(String key) {
+        return (key.hashCode() & 0x7fffffff) % 16;
+    }
+}
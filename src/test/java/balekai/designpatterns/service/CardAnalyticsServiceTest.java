@@ -0,0 +1,104 @@
+package balekai.designpatterns.service;
+
+import balekai.designpatterns.model.BoardDurationBucket;
+import balekai.designpatterns.model.BoardDurationBucket.Metric;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CardAnalyticsServiceTest {
+
+    // Four buckets per doubling: a bucket's upper bound is 2^(1/4) ~ 1.19 times its lower bound
+    private static final double BUCKET_ERROR = 0.19;
+
+    @Test
+    void subSecondDurationsGoToTheFirstBucket() {
+        assertThat(CardAnalyticsService.bucketOf(0)).isZero();
+        assertThat(CardAnalyticsService.bucketOf(-5)).isZero();
+        assertThat(CardAnalyticsService.bucketOf(1)).isEqualTo(1);
+    }
+
+    @Test
+    void bucketsAreMonotonicAndContainTheirValues() {
+        int previous = 0;
+        for (long seconds = 1; seconds <= 1_000_000; seconds++) {
+            int bucket = CardAnalyticsService.bucketOf(seconds);
+            assertThat(bucket).isGreaterThanOrEqualTo(previous);
+            assertThat((double) seconds)
+                    .as("%d seconds in bucket %d", seconds, bucket)
+                    .isGreaterThanOrEqualTo(CardAnalyticsService.lowerBound(bucket))
+                    .isLessThan(CardAnalyticsService.upperBound(bucket));
+            previous = bucket;
+        }
+    }
+
+    @Test
+    void aYearNeedsOnlyAFewDozenBuckets() {
+        assertThat(CardAnalyticsService.bucketOf(365L * 24 * 3600)).isLessThan(120);
+    }
+
+    @Test
+    void percentilesOfAUniformSpreadAreWithinOneBucket() {
+        List<Long> samples = new ArrayList<>();
+        for (long seconds = 1; seconds <= 10_000; seconds++) {
+            samples.add(seconds);
+        }
+        List<BoardDurationBucket> buckets = histogram(samples);
+
+        assertThat((double) CardAnalyticsService.percentile(buckets, samples.size(), 0.50))
+                .isCloseTo(5_000, within(5_000 * BUCKET_ERROR));
+        assertThat((double) CardAnalyticsService.percentile(buckets, samples.size(), 0.85))
+                .isCloseTo(8_500, within(8_500 * BUCKET_ERROR));
+        assertThat((double) CardAnalyticsService.percentile(buckets, samples.size(), 0.95))
+                .isCloseTo(9_500, within(9_500 * BUCKET_ERROR));
+    }
+
+    @Test
+    void percentileInterpolatesInsideTheBucketHoldingTheRank() {
+        int bucket = CardAnalyticsService.bucketOf(3_600);
+        List<BoardDurationBucket> buckets = List.of(bucket(bucket, 4));
+        double low = CardAnalyticsService.lowerBound(bucket);
+        double high = CardAnalyticsService.upperBound(bucket);
+
+        assertThat(CardAnalyticsService.percentile(buckets, 4, 0.50)).isEqualTo(Math.round(low + (high - low) / 2));
+        assertThat(CardAnalyticsService.percentile(buckets, 4, 1.0)).isEqualTo(Math.round(high));
+    }
+
+    @Test
+    void skewedDistributionPercentilesFollowTheTail() {
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            samples.add(60L);
+        }
+        for (int i = 0; i < 10; i++) {
+            samples.add(86_400L);
+        }
+        List<BoardDurationBucket> buckets = histogram(samples);
+
+        assertThat((double) CardAnalyticsService.percentile(buckets, samples.size(), 0.50))
+                .isCloseTo(60, within(60 * BUCKET_ERROR));
+        assertThat((double) CardAnalyticsService.percentile(buckets, samples.size(), 0.95))
+                .isCloseTo(86_400, within(86_400 * BUCKET_ERROR));
+    }
+
+    // Buckets ordered by index, as the repository returns them
+    private static List<BoardDurationBucket> histogram(List<Long> samples) {
+        TreeMap<Integer, BoardDurationBucket> buckets = new TreeMap<>();
+        for (long seconds : samples) {
+            BoardDurationBucket bucket = buckets.computeIfAbsent(CardAnalyticsService.bucketOf(seconds),
+                    index -> bucket(index, 0));
+            bucket.setSamples(bucket.getSamples() + 1);
+            bucket.setTotalSeconds(bucket.getTotalSeconds() + seconds);
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private static BoardDurationBucket bucket(int index, long samples) {
+        return new BoardDurationBucket(null, 1L, Metric.TIME_IN_STATE, "", index, samples, 0);
+    }
+}